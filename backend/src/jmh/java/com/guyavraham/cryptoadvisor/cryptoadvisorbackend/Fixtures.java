@@ -0,0 +1,25 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Synthetic payloads under src/jmh/resources/fixtures, hand-written to match the shape and field names of the
+// CryptoPanic and Reddit responses. Not recorded traffic: sizes and text are made up, so compare results
+// between runs rather than reading them as production numbers
+public final class Fixtures {
+
+    private Fixtures() {}
+
+    public static String load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
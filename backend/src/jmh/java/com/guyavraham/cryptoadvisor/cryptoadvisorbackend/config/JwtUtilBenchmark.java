@@ -0,0 +1,54 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+// Token issue at login, and the per-request check with and without the verified-token cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        // Same defaults as the @Value placeholders
+        jwtUtil = new JwtUtil();
+        set("secret", "mySecretKey123456789012345678901234567890");
+        set("expiration", 86400000L);
+        set("verifiedCacheMaxSize", 10000);
+        jwtUtil.init();
+        token = jwtUtil.generateToken(42L, "bench@example.com");
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtUtil, value);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(42L, "bench@example.com");
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken validateUncached() {
+        return jwtUtil.verifySignature(token, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken validateCached() {
+        return jwtUtil.verify(token);
+    }
+}
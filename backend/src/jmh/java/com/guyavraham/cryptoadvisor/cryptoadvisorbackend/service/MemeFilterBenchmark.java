@@ -0,0 +1,43 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meme filter over one synthetic Reddit listing (25 posts, see Fixtures). The fixture is not representative of
+ * real listings: post mix, field sizes and the share of posts the filter rejects are made up, so use the numbers
+ * to compare changes to the filter, not to predict production throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemeFilterBenchmark {
+
+    private List<MemePoolService.RedditPost> posts;
+
+    @Setup
+    public void setup() throws Exception {
+        posts = MemePoolService.decodePosts(new ByteArrayInputStream(
+                Fixtures.load("reddit-listing.json").getBytes(StandardCharsets.UTF_8)), "CryptoCurrency");
+    }
+
+    @Benchmark
+    public int filterListing() {
+        int valid = 0;
+        for (MemePoolService.RedditPost post : posts) {
+            if (MemePoolService.isValidMemePost(post)) valid++;
+        }
+        return valid;
+    }
+}
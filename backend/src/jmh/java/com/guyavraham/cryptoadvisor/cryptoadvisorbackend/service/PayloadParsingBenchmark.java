@@ -0,0 +1,94 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding CryptoPanic and Reddit payloads as done on every refresh. The *Tree benchmarks are the old path (body
+ * buffered into a String, readTree, copied into HashMaps) kept as a baseline for the streaming decoders.
+ *
+ * <p>The payloads are synthetic (see Fixtures) and not representative of real responses: they follow the field
+ * names but not the sizes, nesting depth or text of recorded traffic. Compare the decoders against each other
+ * and across runs; absolute numbers say little about production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PayloadParsingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] cryptoPanicBody;
+    private byte[] redditBody;
+
+    @Setup
+    public void setup() {
+        cryptoPanicBody = Fixtures.load("cryptopanic-posts.json").getBytes(StandardCharsets.UTF_8);
+        redditBody = Fixtures.load("reddit-listing.json").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<CryptoNewsIngestionService.NewsArticle> cryptoPanicStreaming() throws Exception {
+        return CryptoNewsIngestionService.decodeArticles(new ByteArrayInputStream(cryptoPanicBody), 20);
+    }
+
+    @Benchmark
+    public List<Map<String, String>> cryptoPanicTree() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(cryptoPanicBody, StandardCharsets.UTF_8));
+        List<Map<String, String>> articles = new ArrayList<>();
+        for (JsonNode node : root.get("results")) {
+            if (!node.has("title")) continue;
+            Map<String, String> article = new HashMap<>();
+            article.put("id", node.get("id").asText());
+            article.put("title", node.get("title").asText());
+            article.put("url", node.has("url") ? node.get("url").asText() : "#");
+            article.put("time", node.has("published_at") ? node.get("published_at").asText() : "Unknown");
+            article.put("source", node.has("source") && node.get("source").has("title")
+                    ? node.get("source").get("title").asText() : "Unknown");
+            articles.add(Map.copyOf(article));
+            if (articles.size() == 20) break;
+        }
+        return articles;
+    }
+
+    @Benchmark
+    public List<MemePoolService.RedditPost> redditStreaming() throws Exception {
+        return MemePoolService.decodePosts(new ByteArrayInputStream(redditBody), "CryptoCurrency");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> redditTree() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(redditBody, StandardCharsets.UTF_8));
+        List<Map<String, Object>> posts = new ArrayList<>();
+        for (JsonNode child : root.get("data").get("children")) {
+            JsonNode postData = child.get("data");
+            Map<String, Object> post = new HashMap<>();
+            post.put("title", postData.has("title") ? postData.get("title").asText() : "");
+            post.put("url", postData.has("url") ? postData.get("url").asText() : "");
+            post.put("permalink", postData.has("permalink") ? postData.get("permalink").asText() : "");
+            post.put("score", postData.has("score") ? postData.get("score").asInt() : 0);
+            post.put("subreddit", postData.has("subreddit") ? postData.get("subreddit").asText() : "CryptoCurrency");
+            post.put("author", postData.has("author") ? postData.get("author").asText() : "unknown");
+            post.put("is_video", postData.has("is_video") && postData.get("is_video").asBoolean());
+            post.put("post_hint", postData.has("post_hint") ? postData.get("post_hint").asText() : "");
+            posts.add(post);
+        }
+        return posts;
+    }
+}
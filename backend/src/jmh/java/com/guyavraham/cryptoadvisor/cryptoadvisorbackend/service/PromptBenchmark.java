@@ -0,0 +1,32 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PromptBenchmark {
+
+    private AIInsightService.ProfileSegment segment;
+
+    @Setup
+    public void setup() {
+        segment = AIInsightService.ProfileSegment.of("Day Trader",
+                List.of("Bitcoin", "Ethereum", "Solana"),
+                List.of("Market News", "Charts", "Fun"));
+    }
+
+    @Benchmark
+    public String personalizedPrompt() {
+        return AIInsightService.buildPersonalizedPrompt(segment);
+    }
+}
@@ -0,0 +1,129 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Count-based breaker: opens when too many of the last calls failed or were slow, rejects calls while open,
+// then lets a few trial calls through (half-open) to decide whether to close again
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final long openDurationMs;
+    private final int halfOpenProbes;
+
+    // Outcomes of the last windowSize calls, true = failed or slow
+    private final boolean[] window;
+    private int windowIndex = 0;
+    private int recordedCalls = 0;
+    private int badCalls = 0;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil = 0;
+    private int probesInFlight = 0;
+    private int probeSuccesses = 0;
+
+    private final LongAdder timesOpened = new LongAdder();
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent,
+                          long slowCallMs, long openDurationMs, int halfOpenProbes) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openDurationMs = openDurationMs;
+        this.halfOpenProbes = halfOpenProbes;
+        this.window = new boolean[windowSize];
+    }
+
+    // False means the caller must not call the upstream and should serve its fallback instead
+    public boolean tryAcquire() {
+        // Lock-free rejection while open, so an outage costs callers almost nothing
+        if (state == State.OPEN && System.currentTimeMillis() < openUntil) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= halfOpenProbes) {
+                    return false;
+                }
+                probesInFlight++;
+            }
+            return true;
+        }
+    }
+
+    public synchronized void record(boolean success, long latencyNanos) {
+        boolean bad = !success || latencyNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (bad) {
+                open();
+            } else if (++probeSuccesses >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+
+        if (state == State.OPEN) {
+            // A call that started before the breaker opened; its outcome is stale
+            return;
+        }
+
+        if (recordedCalls == windowSize) {
+            if (window[windowIndex]) badCalls--;
+        } else {
+            recordedCalls++;
+        }
+        window[windowIndex] = bad;
+        if (bad) badCalls++;
+        windowIndex = (windowIndex + 1) % windowSize;
+
+        if (recordedCalls >= minimumCalls && badCalls * 100 >= failureRatePercent * recordedCalls) {
+            open();
+        }
+    }
+
+    // For an acquired call that never reached the upstream
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + openDurationMs;
+        timesOpened.increment();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recordedCalls = 0;
+        badCalls = 0;
+        windowIndex = 0;
+    }
+
+    public long getTimesOpened() {
+        return timesOpened.sum();
+    }
+}
@@ -0,0 +1,66 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+// Creates the feedback indexes Hibernate's ddl-auto cannot express (partial indexes, dedup before unique)
+@Component
+public class FeedbackSchemaInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedbackSchemaInitializer.class);
+
+    // Forces Hibernate to create/update the feedback table before we add indexes to it
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() throws Exception {
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (!"PostgreSQL".equals(database)) {
+            // Tests run on H2, where the entity's unique constraint is enough
+            return;
+        }
+
+        if (!indexExists("uk_feedback_user_section_null_article")) {
+            removeDuplicateVotes();
+        }
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_feedback_user_section_article "
+                + "ON feedback (user_id, section, article_id)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_feedback_user_section_null_article "
+                + "ON feedback (user_id, section) WHERE article_id IS NULL");
+    }
+
+    private boolean indexExists(String indexName) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE tablename = 'feedback' AND indexname = ?",
+                Integer.class, indexName);
+        return count != null && count > 0;
+    }
+
+    // One-time migration: keep only the newest vote per (user, section, article) so the unique indexes can be built
+    private void removeDuplicateVotes() {
+        int removed = jdbcTemplate.update(
+                "DELETE FROM feedback f USING feedback newer "
+                + "WHERE f.user_id = newer.user_id AND f.section = newer.section "
+                + "AND f.article_id IS NOT DISTINCT FROM newer.article_id "
+                + "AND (COALESCE(f.created_at, 'epoch'::timestamp), f.id) "
+                + "< (COALESCE(newer.created_at, 'epoch'::timestamp), newer.id)");
+        log.info("Removed " + removed + " duplicate feedback votes");
+    }
+}
@@ -0,0 +1,74 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+// One pooled client for every upstream; each upstream gets its own timeout and bulkhead on top of it.
+// Per-upstream settings: upstream.<name>.read-timeout-ms, max-concurrent, acquire-timeout-ms,
+// and circuit breaker settings under upstream.<name>.circuit.*
+@Configuration
+public class HttpClientConfig {
+
+    // Keep-alive connections are pooled per host inside the client; HTTP/2 is negotiated where the server offers it
+    @Bean(destroyMethod = "close")
+    public HttpClient sharedHttpClient(Environment env) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(env.getProperty("upstream.connect-timeout-ms", Long.class, 3000L)))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    public UpstreamClient cryptoPanicUpstream(HttpClient sharedHttpClient, Environment env, MeterRegistry meterRegistry) {
+        return upstream("cryptopanic", sharedHttpClient, env, meterRegistry, 5000, 2);
+    }
+
+    @Bean
+    public UpstreamClient redditOAuthUpstream(HttpClient sharedHttpClient, Environment env, MeterRegistry meterRegistry) {
+        return upstream("reddit-oauth", sharedHttpClient, env, meterRegistry, 5000, 2);
+    }
+
+    @Bean
+    public UpstreamClient redditUpstream(HttpClient sharedHttpClient, Environment env, MeterRegistry meterRegistry) {
+        return upstream("reddit", sharedHttpClient, env, meterRegistry, 5000, 4);
+    }
+
+    @Bean
+    public UpstreamClient coinGeckoUpstream(HttpClient sharedHttpClient, Environment env, MeterRegistry meterRegistry) {
+        return upstream("coingecko", sharedHttpClient, env, meterRegistry, 5000, 4);
+    }
+
+    // LLM completions are slow by nature, so OpenRouter gets the longest timeout and its own permits
+    @Bean
+    public UpstreamClient openRouterUpstream(HttpClient sharedHttpClient, Environment env, MeterRegistry meterRegistry) {
+        return upstream("openrouter", sharedHttpClient, env, meterRegistry, 30000, 8);
+    }
+
+    private UpstreamClient upstream(String name, HttpClient httpClient, Environment env, MeterRegistry meterRegistry,
+                                    long defaultReadTimeoutMs, int defaultMaxConcurrent) {
+        String prefix = "upstream." + name + ".";
+        long readTimeoutMs = env.getProperty(prefix + "read-timeout-ms", Long.class, defaultReadTimeoutMs);
+
+        // Opens when half of the last 20 calls failed or took most of the read timeout
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                env.getProperty(prefix + "circuit.window-size", Integer.class, 20),
+                env.getProperty(prefix + "circuit.minimum-calls", Integer.class, 5),
+                env.getProperty(prefix + "circuit.failure-rate-percent", Integer.class, 50),
+                env.getProperty(prefix + "circuit.slow-call-ms", Long.class, readTimeoutMs * 4 / 5),
+                env.getProperty(prefix + "circuit.open-duration-ms", Long.class, 30000L),
+                env.getProperty(prefix + "circuit.half-open-probes", Integer.class, 2));
+
+        return new UpstreamClient(name, httpClient, Duration.ofMillis(readTimeoutMs),
+                env.getProperty(prefix + "max-concurrent", Integer.class, defaultMaxConcurrent),
+                env.getProperty(prefix + "acquire-timeout-ms", Long.class, 250L),
+                circuitBreaker, meterRegistry);
+    }
+}
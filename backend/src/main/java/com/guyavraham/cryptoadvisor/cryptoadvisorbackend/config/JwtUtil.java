@@ -1,13 +1,23 @@
 package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
@@ -18,8 +28,29 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24 hours
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Token -> claims we already checked the signature of, so each token is verified once until it expires.
+    // Keyed by the whole token, not just its signature part, so a reused signature with an edited payload misses
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    public record VerifiedToken(Long userId, String email, long expiresAt) {}
+
+    @PostConstruct
+    public void init() {
+        // Key and parser are immutable and thread-safe, so build them once
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "jwt-verified"), verifiedTokens);
     }
 
     public String generateToken(Long userId, String email) {
@@ -28,28 +59,64 @@ public class JwtUtil {
                 .claim("email", email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public Long getUserIdFromToken(String token) {
-        return Long.parseLong(Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject());
+    // Returns the token's claims, or null if it is malformed, forged or expired
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() > now) return cached;
+            verifiedTokens.remove(token, cached);
+            return null;
+        }
+
+        VerifiedToken verified = verifySignature(token, now);
+        if (verified == null) return null;
+
+        if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+            evictExpired();
+            // Still full of live tokens: drop some arbitrary entries, they'll just be verified again
+            Iterator<String> it = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() >= verifiedCacheMaxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        verifiedTokens.put(token, verified);
+        return verified;
     }
 
-    public boolean isTokenValid(String token) {
+    // Full signature check and claims decode, bypassing the cache
+    VerifiedToken verifySignature(String token, long now) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : now + expiration;
+            return new VerifiedToken(Long.parseLong(claims.getSubject()), claims.get("email", String.class), expiresAt);
         } catch (Exception e) {
-            return false;
+            return null;
+        }
+    }
+
+    public Long getUserIdFromToken(String token) {
+        VerifiedToken verified = verify(token);
+        if (verified == null) {
+            throw new IllegalArgumentException("Invalid or expired token");
         }
+        return verified.userId();
+    }
+
+    public boolean isTokenValid(String token) {
+        return verify(token) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.verified-cache.purge-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(token -> token.expiresAt() <= now);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+// application.properties is not checked in, so the metrics defaults live in their own file.
+// Endpoint, repository (JPA) and Hikari metrics come from Actuator; upstream, cache, fallback and
+// write-behind metrics are registered by the classes that own them
+@Configuration
+@PropertySource("classpath:observability.properties")
+public class ObservabilityConfig {
+}
@@ -0,0 +1,176 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One external API: shares the pooled HTTP client, but has its own read timeout, concurrency limit (bulkhead)
+// and circuit breaker, so a slow or failing upstream can only tie up its own permits
+public class UpstreamClient {
+
+    private final String name;
+    private final HttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final Semaphore permits;
+    private final CircuitBreaker circuitBreaker;
+
+    // Prometheus: upstream_calls_seconds{upstream,outcome}, upstream_rejections_total{upstream,reason}
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter bulkheadRejections;
+    private final Counter circuitRejections;
+
+    public UpstreamClient(String name, HttpClient httpClient, Duration readTimeout,
+                          int maxConcurrent, long acquireTimeoutMs, CircuitBreaker circuitBreaker,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.httpClient = httpClient;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent);
+        this.circuitBreaker = circuitBreaker;
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        this.successTimer = callTimer(meterRegistry, "success");
+        this.failureTimer = callTimer(meterRegistry, "failure");
+        this.bulkheadRejections = Counter.builder("upstream.rejections")
+                .tags("upstream", name, "reason", "bulkhead").register(meterRegistry);
+        this.circuitRejections = Counter.builder("upstream.rejections")
+                .tags("upstream", name, "reason", "circuit_open").register(meterRegistry);
+        Gauge.builder("upstream.in.flight", permits, p -> maxConcurrent - p.availablePermits())
+                .tag("upstream", name).register(meterRegistry);
+        Gauge.builder("upstream.queued", permits, Semaphore::getQueueLength)
+                .tag("upstream", name).register(meterRegistry);
+        FunctionCounter.builder("upstream.circuit.opened", circuitBreaker, CircuitBreaker::getTimesOpened)
+                .tag("upstream", name).register(meterRegistry);
+        // 0 = closed, 1 = half-open, 2 = open
+        Gauge.builder("upstream.circuit.state", circuitBreaker, breaker -> switch (breaker.getState()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                })
+                .tag("upstream", name).register(meterRegistry);
+    }
+
+    private Timer callTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("upstream.calls")
+                .tags("upstream", name, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // The shared client, for callers that need the JDK API directly (e.g. streaming); pair with begin()/end()
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    // Throws RejectedExecutionException when the circuit is open or the bulkhead is full, like the other
+    // backpressure paths; callers serve their last good response or fallback instead
+    public ResponseEntity<String> exchange(String url, HttpMethod method, HttpEntity<?> entity) {
+        Call call = begin();
+        boolean success = false;
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(url, method, entity, String.class);
+            success = response.getStatusCode().is2xxSuccessful();
+            return response;
+        } finally {
+            call.end(success);
+        }
+    }
+
+    // Same as exchange(), but hands the raw response stream to the decoder instead of buffering it into a String.
+    // Non-2xx responses still throw; the rest of the body is dropped once the decoder returns
+    public <T> T exchange(String url, HttpMethod method, HttpEntity<?> entity, BodyDecoder<T> decoder) {
+        Call call = begin();
+        boolean success = false;
+        try {
+            T decoded = restTemplate.execute(url, method, restTemplate.httpEntityCallback(entity), response -> {
+                try (InputStream body = response.getBody()) {
+                    return decoder.decode(body);
+                }
+            });
+            success = true;
+            return decoded;
+        } finally {
+            call.end(success);
+        }
+    }
+
+    @FunctionalInterface
+    public interface BodyDecoder<T> {
+        T decode(InputStream body) throws IOException;
+    }
+
+    // Takes a permit for a call made outside exchange(); the caller must end() it exactly once
+    public Call begin() {
+        if (!circuitBreaker.tryAcquire()) {
+            circuitRejections.increment();
+            throw new CircuitOpenException(name);
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            bulkheadRejections.increment();
+            // Not the upstream's fault: give back a half-open probe slot without recording an outcome
+            circuitBreaker.release();
+            throw new RejectedExecutionException(name + " has " + maxConcurrent + " calls in flight");
+        }
+        return new Call(System.nanoTime());
+    }
+
+    public class Call {
+        private final long startedAt;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private Call(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        // Safe to call more than once, only the first call counts
+        public void end(boolean success) {
+            if (!ended.compareAndSet(false, true)) return;
+            permits.release();
+
+            long latency = System.nanoTime() - startedAt;
+            (success ? successTimer : failureTimer).record(latency, TimeUnit.NANOSECONDS);
+            circuitBreaker.record(success, latency);
+        }
+    }
+
+    public static class CircuitOpenException extends RejectedExecutionException {
+        public CircuitOpenException(String upstream) {
+            super(upstream + " circuit is open");
+        }
+    }
+}
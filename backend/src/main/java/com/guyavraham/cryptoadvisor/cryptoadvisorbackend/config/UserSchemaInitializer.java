@@ -0,0 +1,62 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+// Moves onboarding preferences from the old join tables into the users array columns and adds their GIN indexes
+@Component
+public class UserSchemaInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSchemaInitializer.class);
+
+    // Forces Hibernate to add the array columns before we copy data into them
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() throws Exception {
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (!"PostgreSQL".equals(database)) {
+            // Tests run on H2 with a fresh schema, nothing to migrate or index
+            return;
+        }
+
+        migrateCollection("user_crypto_interests", "crypto_asset", "crypto_interests");
+        migrateCollection("user_content_preferences", "content_type", "content_preferences");
+
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_crypto_interests "
+                + "ON users USING GIN (crypto_interests)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_content_preferences "
+                + "ON users USING GIN (content_preferences)");
+    }
+
+    // Copies rows for users whose array is still unset; the old table is left in place as a backup
+    private void migrateCollection(String joinTable, String valueColumn, String arrayColumn) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, joinTable);
+        if (!Boolean.TRUE.equals(exists)) return;
+
+        int migrated = jdbcTemplate.update(
+                "UPDATE users u SET " + arrayColumn + " = old.items "
+                + "FROM (SELECT user_id, array_agg(" + valueColumn + ") AS items FROM " + joinTable
+                + " GROUP BY user_id) old "
+                + "WHERE u.id = old.user_id AND u." + arrayColumn + " IS NULL");
+        if (migrated > 0) {
+            log.info("Migrated " + joinTable + " into users." + arrayColumn + " for " + migrated + " users");
+        }
+    }
+}
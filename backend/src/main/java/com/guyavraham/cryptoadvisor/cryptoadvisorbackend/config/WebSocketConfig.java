@@ -0,0 +1,57 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller.PriceTickerHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+// Origins match the CORS config. Like the SSE stream, the socket needs a valid JWT; browsers can't set headers
+// on a WebSocket handshake, so it comes as ?token=
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private PriceTickerHandler priceTickerHandler;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(priceTickerHandler, "/ws/prices")
+                .addInterceptors(new JwtHandshakeInterceptor())
+                .setAllowedOrigins("http://localhost:3000", "https://crypto-advisor-theta.vercel.app");
+    }
+
+    private final class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+            JwtUtil.VerifiedToken verified = token != null ? jwtUtil.verify(token) : null;
+            if (verified == null) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+            attributes.put("userId", verified.userId());
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
+    }
+}
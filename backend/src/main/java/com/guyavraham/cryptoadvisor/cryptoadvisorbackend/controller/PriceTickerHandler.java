@@ -0,0 +1,63 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.PriceTicker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Clients send {"type": "subscribe", "coins": ["bitcoin", ...]} (again whenever their interests change)
+// and then receive one {"coin", "usd", "usd_24h_change", "fetchedAt"} message per price change
+@Component
+public class PriceTickerHandler extends TextWebSocketHandler {
+
+    @Autowired
+    private PriceTicker priceTicker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        priceTicker.open(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(message.getPayload());
+        } catch (Exception e) {
+            session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Invalid message"));
+            return;
+        }
+
+        if (!"subscribe".equals(root.path("type").asText()) || !root.path("coins").isArray()) {
+            session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Expected a subscribe message"));
+            return;
+        }
+
+        List<String> coins = new ArrayList<>();
+        for (JsonNode coin : root.path("coins")) {
+            if (coin.isTextual()) coins.add(coin.asText());
+        }
+        priceTicker.subscribe(session, coins);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        priceTicker.close(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        priceTicker.close(session);
+    }
+}
@@ -0,0 +1,247 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.VoteRecordedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Serialized JSON responses kept as bytes (plus a gzipped copy) with a content-hash ETag.
+// On a hit, If-None-Match is answered with 304 and a miss only runs the body supplier once per change
+@Component
+public class ResponseCache {
+
+    private static final String PUBLIC_CACHE_CONTROL = "no-cache";
+    private static final String PRIVATE_CACHE_CONTROL = "private, no-cache";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${response-cache.max-size:10000}")
+    private int maxSize;
+
+    // Bodies smaller than this are sent as is, gzip would barely help
+    @Value("${response-cache.gzip-min-bytes:512}")
+    private int gzipMinBytes;
+
+    // LRU by access order, trimmed to maxSize on every insert
+    private final Map<String, CachedResponse> entries = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                    if (size() > maxSize) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            });
+
+    // Names passed to respondForUser, so a user's entries can be dropped without scanning the map
+    private final Set<String> userScopedNames = ConcurrentHashMap.newKeySet();
+
+    // Bumped on every user invalidation, so a load that raced with a vote doesn't put the old body back
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // version is whatever the body was built from (compared by identity). The gzipped copy is a different
+    // representation, so it gets its own tag; both are quoted, ready for the header
+    record CachedResponse(Object version, byte[] body, String etag, byte[] gzipped, String gzippedEtag) {}
+
+    @PostConstruct
+    public void init() {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "response", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "response", "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", "response").register(meterRegistry);
+        FunctionCounter.builder("http.not.modified", notModified, AtomicLong::get)
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "response"), entries);
+    }
+
+    // Shared data: the cached bytes are reused while the caller's version object stays the same instance.
+    // A null version (e.g. fallback data) is serialized every time and not stored
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, String key, Object version, Supplier<?> body) {
+        CachedResponse cached = version != null ? entries.get(key) : null;
+        if (cached != null && cached.version() == version) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            cached = serialize(version, body.get());
+            if (version != null) {
+                entries.put(key, cached);
+            }
+        }
+        return toResponse(request, cached, PUBLIC_CACHE_CONTROL);
+    }
+
+    // Per-user data: cached until invalidateUser, which runs for every vote the user writes
+    public ResponseEntity<byte[]> respondForUser(HttpServletRequest request, String name, Long userId, Supplier<?> body) {
+        userScopedNames.add(name);
+        String key = name + ":" + userId;
+
+        CachedResponse cached = entries.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            long generationAtLoad = generation.get();
+            cached = serialize(userId, body.get());
+            // Check and put under the map's lock, which invalidateUser also holds
+            synchronized (entries) {
+                if (generation.get() == generationAtLoad) {
+                    entries.put(key, cached);
+                }
+            }
+        }
+        return toResponse(request, cached, PRIVATE_CACHE_CONTROL);
+    }
+
+    @EventListener
+    public void onVoteRecorded(VoteRecordedEvent event) {
+        invalidateUser(event.userId());
+    }
+
+    public void invalidateUser(Long userId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            for (String name : userScopedNames) {
+                entries.remove(name + ":" + userId);
+            }
+        }
+    }
+
+    private ResponseEntity<byte[]> toResponse(HttpServletRequest request, CachedResponse cached, String cacheControl) {
+        boolean gzip = cached.gzipped() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? cached.gzippedEtag() : cached.etag();
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            notModified.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzipped());
+        }
+        return response.body(cached.body());
+    }
+
+    // gzip (or *) listed with a non-zero q-value; an explicit gzip entry wins over *, so "gzip;q=0" refuses it
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    // If-None-Match may list several tags, weak ones included, or be "*"
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private CachedResponse serialize(Object version, Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            byte[] gzipped = body.length >= gzipMinBytes ? gzip(body) : null;
+            String hash = hash(body);
+            return new CachedResponse(version, body, "\"" + hash + "\"", gzipped, "\"" + hash + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] gzipped = out.toByteArray();
+        return gzipped.length < body.length ? gzipped : null;
+    }
+
+    // First 128 bits of SHA-256, hex encoded
+    private static String hash(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
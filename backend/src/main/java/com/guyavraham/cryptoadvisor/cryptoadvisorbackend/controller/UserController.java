@@ -3,20 +3,30 @@ package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller;
 import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.User;
 import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.JwtUtil;
 import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
-import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.Feedback;
-import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.FeedbackRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.http.HttpEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.AIInsightService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.ArticleVoteAggregateService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.CryptoNewsIngestionService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.CryptoPriceService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.DashboardService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.FeedbackWriteBehindService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.LoginAttemptLimiter;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.MemePoolService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.NewsRanker;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.PasswordHashingService;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.UpdateBroadcaster;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.UserProfileCache;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 
 import java.util.HashMap;
@@ -25,15 +35,15 @@ import java.util.Optional;
 import java.util.List;
 import java.util.HashSet;
 import java.util.Arrays;
-import java.util.ArrayList;
-import java.time.Instant;
-import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:3000")
 public class UserController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -41,59 +51,86 @@ public class UserController {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private FeedbackWriteBehindService feedbackWriteBehindService;
+
+    @Autowired
+    private ArticleVoteAggregateService articleVoteAggregateService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
 
     @Autowired
-    private FeedbackRepository feedbackRepository;
+    private CryptoNewsIngestionService cryptoNewsIngestionService;
 
-    @Value("${CRYPTOPANIC_API_KEY}")
-    private String cryptoPanicApiKey;
+    @Autowired
+    private CryptoPriceService cryptoPriceService;
 
-    @Value("${OPENROUTER_API_KEY}")
-    private String openRouterApiKey;
+    @Autowired
+    private MemePoolService memePoolService;
 
-    @Value("${reddit.client.id:your-reddit-client-id}")
-    private String redditClientId;
+    @Autowired
+    private AIInsightService aiInsightService;
 
-    @Value("${reddit.client.secret:your-reddit-client-secret}")
-    private String redditClientSecret;
+    @Autowired
+    private DashboardService dashboardService;
 
-    @Value("${reddit.user.agent:CryptoAdvisor/1.0}")
-    private String redditUserAgent;
+    @Autowired
+    private ResponseCache responseCache;
 
-    // Reddit access token cache
-    private String redditAccessToken;
-    private long redditTokenExpiry = 0;
+    @Autowired
+    private UpdateBroadcaster updateBroadcaster;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private NewsRanker newsRanker;
 
     @PostMapping("/feedback")
     public ResponseEntity<?> submitFeedback(@RequestBody FeedbackRequest request) {
-        Feedback feedback = new Feedback(request.getUserId(), request.getSection(), request.getVote());
-        feedbackRepository.save(feedback);
+        // Rejected here, so a malformed vote never fails the shared write batch
+        if (isBlankOrTooLong(request.getSection()) || !isValidVote(request.getVote())) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "section is required and vote must be \"up\" or \"down\""));
+        }
+
+        // Votes are recorded for the token's user; the userId in the body is ignored
+        try {
+            feedbackWriteBehindService.submit(currentUserId(), request.getSection(), request.getVote(), null, null);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503)
+                .body(Map.of("error", "Too many votes right now, please try again"));
+        } catch (Exception e) {
+            log.warn("Error recording feedback: " + e.getMessage());
+            return ResponseEntity.status(500)
+                .body(Map.of("error", "Failed to record feedback"));
+        }
 
         return ResponseEntity.ok(Map.of("message", "Feedback recorded"));
     }
 
     @PostMapping("/article-feedback")
     public ResponseEntity<?> submitArticleFeedback(@RequestBody ArticleFeedbackRequest request) {
-        // Check if user already voted on this article
-        Optional<Feedback> existingFeedback = feedbackRepository
-            .findByUserIdAndSectionAndArticleId(request.getUserId(), "news", request.getArticleId());
-
-        Feedback feedback;
-        if (existingFeedback.isPresent()) {
-            // Update existing vote
-            feedback = existingFeedback.get();
-            feedback.setVote(request.getVote());
-            feedback.setCreatedAt(LocalDateTime.now());
-        } else {
-            // Create new vote
-            feedback = new Feedback(request.getUserId(), "news", request.getVote(), request.getArticleId());
+        if (isBlankOrTooLong(request.getArticleId()) || !isValidVote(request.getVote())) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "articleId is required and vote must be \"up\" or \"down\""));
         }
 
-        feedbackRepository.save(feedback);
+        // Written in batches by the write-behind worker, which updates an existing vote or inserts a new one
+        try {
+            feedbackWriteBehindService.submit(currentUserId(), "news", request.getVote(), request.getArticleId(),
+                    newsRanker.sourceOf(request.getArticleId()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503)
+                .body(Map.of("error", "Too many votes right now, please try again"));
+        } catch (Exception e) {
+            log.warn("Error recording article feedback: " + e.getMessage());
+            return ResponseEntity.status(500)
+                .body(Map.of("error", "Failed to record article feedback"));
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Article feedback recorded");
@@ -103,32 +140,34 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
-    @GetMapping("/section-votes/{userId}")
-    public ResponseEntity<?> getUserSectionVotes(@PathVariable Long userId) {
-        List<Feedback> userVotes = feedbackRepository.findByUserIdAndArticleId(userId, null);
+    private static boolean isValidVote(String vote) {
+        return "up".equals(vote) || "down".equals(vote);
+    }
 
-        Map<String, String> votes = new HashMap<>();
-        for (Feedback feedback : userVotes) {
-            if (feedback.getArticleId() == null) { // Section votes don't have article IDs
-                votes.put(feedback.getSection(), feedback.getVote());
-            }
-        }
+    // Both end up in VARCHAR(255) columns
+    private static boolean isBlankOrTooLong(String value) {
+        return value == null || value.isBlank() || value.length() > 255;
+    }
 
-        return ResponseEntity.ok(votes);
+    @GetMapping("/section-votes/{userId}")
+    public ResponseEntity<?> getUserSectionVotes(@PathVariable Long userId, HttpServletRequest request) {
+        requireSelf(userId);
+        // Cached as serialized bytes until the user's next vote is written
+        return responseCache.respondForUser(request, "section-votes", userId,
+                () -> dashboardService.sectionVotes(userId));
     }
 
     @GetMapping("/article-feedback/{userId}")
-    public ResponseEntity<?> getUserArticleVotes(@PathVariable Long userId) {
-        List<Feedback> userVotes = feedbackRepository.findByUserIdAndSection(userId, "news");
-
-        Map<String, String> votes = new HashMap<>();
-        for (Feedback feedback : userVotes) {
-            if (feedback.getArticleId() != null) {
-                votes.put(feedback.getArticleId(), feedback.getVote());
-            }
-        }
+    public ResponseEntity<?> getUserArticleVotes(@PathVariable Long userId, HttpServletRequest request) {
+        requireSelf(userId);
+        return responseCache.respondForUser(request, "article-feedback", userId,
+                () -> dashboardService.articleVotes(userId));
+    }
 
-        return ResponseEntity.ok(votes);
+    // Live up/down totals for a batch of articles, e.g. ?ids=123,456
+    @GetMapping("/article-votes")
+    public ResponseEntity<?> getArticleVoteCounts(@RequestParam String ids) {
+        return ResponseEntity.ok(articleVoteAggregateService.getCounts(Arrays.asList(ids.split(","))));
     }
 
     @PostMapping("/register")
@@ -141,7 +180,12 @@ public class UserController {
         User user = new User();
         user.setEmail(request.getEmail());
         user.setName(request.getName());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        try {
+            // Hashed on the bounded bcrypt pool, not on this request thread
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+        } catch (RejectedExecutionException e) {
+            return serverBusy();
+        }
 
         User savedUser = userRepository.save(user);
 
@@ -156,21 +200,51 @@ public class UserController {
 
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Behind a proxy this is the proxy's address unless forwarded headers are enabled
+        String clientIp = httpRequest.getRemoteAddr();
+
+        // Repeated failures are turned away before any bcrypt work is spent on them
+        long retryAfter = loginAttemptLimiter.retryAfterSeconds(request.getEmail(), clientIp);
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(Map.of("error", "Too many failed login attempts, please try again later"));
+        }
+
         Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
 
         if (userOpt.isEmpty()) {
+            loginAttemptLimiter.recordFailure(request.getEmail(), clientIp);
             return ResponseEntity.badRequest()
                 .body(Map.of("error", "Invalid email or password"));
         }
 
         User user = userOpt.get();
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        boolean passwordMatches;
+        try {
+            passwordMatches = passwordHashingService.matches(request.getPassword(), user.getPassword());
+        } catch (RejectedExecutionException e) {
+            return serverBusy();
+        }
+
+        if (!passwordMatches) {
+            loginAttemptLimiter.recordFailure(request.getEmail(), clientIp);
             return ResponseEntity.badRequest()
                 .body(Map.of("error", "Invalid email or password"));
         }
 
+        loginAttemptLimiter.recordSuccess(request.getEmail());
+
+        // Hashes made with an older cost factor are upgraded while we still have the plain password
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            Long id = user.getId();
+            String oldHash = user.getPassword();
+            passwordHashingService.rehashInBackground(request.getPassword(),
+                newHash -> userRepository.updatePasswordHash(id, oldHash, newHash));
+        }
+
         // Generate JWT token
         String token = jwtUtil.generateToken(user.getId(), user.getEmail());
 
@@ -187,6 +261,7 @@ public class UserController {
 
     @PutMapping("/onboarding/{userId}")
     public ResponseEntity<?> updateOnboarding(@PathVariable Long userId, @RequestBody OnboardingRequest request) {
+        requireSelf(userId);
         Optional<User> userOpt = userRepository.findById(userId);
 
         if (userOpt.isEmpty()) {
@@ -200,6 +275,7 @@ public class UserController {
         user.setOnboardingCompleted(true);
 
         User savedUser = userRepository.save(user);
+        userProfileCache.invalidate(userId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Onboarding completed");
@@ -211,145 +287,88 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
-    @GetMapping("/crypto-news")
-    public ResponseEntity<?> getCryptoNews(@RequestParam(defaultValue = "6") int limit) {
-        try {
-            String apiUrl = "https://cryptopanic.com/api/developer/v2/posts/?auth_token="
-                    + "263d57182fcdae784f08194e141971120e959e84" + "&public=true&kind=news&limit=" + limit;
-            System.out.println("Making API call to: " + apiUrl);
-
-            ResponseEntity<String> response = restTemplate.getForEntity(apiUrl, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                System.out.println("Response received: YES");
-                System.out.println("Response preview: " + response.getBody().substring(0, Math.min(200, response.getBody().length())));
-
-                JsonNode root = objectMapper.readTree(response.getBody());
-                JsonNode results = root.get("results");
-
-                if (results != null && results.isArray()) {
-                    System.out.println("Results node exists: true");
-                    System.out.println("Results array size: " + results.size());
+    @GetMapping("/dashboard/{userId}")
+    public ResponseEntity<?> getDashboard(@PathVariable Long userId) {
+        requireSelf(userId);
+        Optional<UserProfileCache.UserProfile> profile = userProfileCache.get(userId);
 
-                    List<Map<String, String>> articles = new ArrayList<>();
-
-                    for (JsonNode node : results) {
-
-                        if (!node.has("title")) continue;
-
-                        Map<String, String> article = new HashMap<>();
-
-                        // Safe ID
-                        if (node.has("id")) {
-                            article.put("id", node.get("id").asText());
-                        }
-
-                        // Title
-                        article.put("title", node.get("title").asText());
+        if (profile.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
 
+        // News, votes, insight, meme and prices in one payload; parts that miss the deadline are listed in "degraded"
+        return ResponseEntity.ok(dashboardService.buildDashboard(profile.get()));
+    }
 
-                        // URL
-                        article.put("url", node.has("url") ? node.get("url").asText() : "#");
+    @GetMapping("/crypto-news")
+    public ResponseEntity<?> getCryptoNews(@RequestParam(defaultValue = "6") int limit, HttpServletRequest request) {
+        // Served from the in-memory snapshot kept fresh by the ingestion service; serialized once per snapshot
+        int count = Math.max(0, Math.min(limit, CryptoNewsIngestionService.MAX_ARTICLES));
+        CryptoNewsIngestionService.NewsSnapshot snapshot = cryptoNewsIngestionService.currentSnapshot();
+        return responseCache.respond(request, "crypto-news:" + count, snapshot,
+            () -> cryptoNewsIngestionService.getArticles(snapshot, count));
+    }
 
-                        // Published time
-                        article.put("time", node.has("published_at")
-                                ? node.get("published_at").asText()
-                                : "Unknown");
+    // Same articles, ordered by the user's interests, recency and their past votes per source
+    @GetMapping("/crypto-news/{userId}")
+    public ResponseEntity<?> getPersonalizedCryptoNews(@PathVariable Long userId,
+                                                       @RequestParam(defaultValue = "6") int limit) {
+        requireSelf(userId);
+        Optional<UserProfileCache.UserProfile> profile = userProfileCache.get(userId);
 
-                        // Source (nested: source.title)
-                        if (node.has("source") && node.get("source").has("title")) {
-                            article.put("source", node.get("source").get("title").asText());
-                        } else {
-                            article.put("source", "Unknown");
-                        }
+        if (profile.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
 
-                        articles.add(article);
+        int count = Math.max(0, Math.min(limit, CryptoNewsIngestionService.MAX_ARTICLES));
+        return ResponseEntity.ok(newsRanker.rank(profile.get(), count));
+    }
 
-                        if (articles.size() == 6) break;
-                    }
+    private ResponseEntity<?> serverBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", "Server is busy, please try again"));
+    }
 
-                    System.out.println("SUCCESS: Returning " + articles.size() + " real articles from CryptoPanic");
-                    return ResponseEntity.ok(articles);
-                } else {
-                    System.out.println("No results array found in API response!");
-                }
-            } else {
-                System.out.println("API call failed or response body null.");
-            }
-        } catch (Exception e) {
-            System.out.println("Exception: " + e.getMessage());
+    // User id put in the security context by JwtAuthenticationFilter, or null for anonymous requests
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Long userId) {
+            return userId;
         }
-
-        // Fallback dummy data (only if everything fails)
-        List<Map<String, String>> fallback = Arrays.asList(
-                Map.of("id", "fb-1", "title", "Bitcoin maintains consolidation above $60,000 as institutional interest grows",
-                        "url", "https://cointelegraph.com", "time", "2 hours ago", "source", "Cointelegraph"),
-                Map.of("id", "fb-2", "title", "Ethereum's Shanghai upgrade shows strong network adoption metrics",
-                        "url", "https://coindesk.com", "time", "4 hours ago", "source", "CoinDesk"),
-                Map.of("id", "fb-3", "title", "Major cryptocurrency exchange announces new DeFi integration features",
-                        "url", "https://decrypt.co", "time", "6 hours ago", "source", "Decrypt")
-        );
-
-        System.out.println("FALLBACK: Returning " + fallback.size() + " dummy articles");
-        return ResponseEntity.ok(fallback);
+        return null;
     }
 
-    private ResponseEntity<?> getFallbackNews() {
-        List<Map<String, Object>> fallbackNews = Arrays.asList(
-            Map.of("id", "fb-1", "title", "Bitcoin maintains consolidation above $60,000 as institutional interest grows",
-                   "url", "https://cointelegraph.com", "time", "2 hours ago", "source", "Cointelegraph"),
-            Map.of("id", "fb-2", "title", "Ethereum's Shanghai upgrade shows strong network adoption metrics",
-                   "url", "https://coindesk.com", "time", "4 hours ago", "source", "CoinDesk"),
-            Map.of("id", "fb-3", "title", "Major cryptocurrency exchange announces new DeFi integration features",
-                   "url", "https://decrypt.co", "time", "6 hours ago", "source", "Decrypt"),
-            Map.of("id", "fb-4", "title", "Regulatory clarity emerges for crypto derivatives in European markets",
-                   "url", "https://theblock.co", "time", "8 hours ago", "source", "TheBlock"),
-            Map.of("id", "fb-5", "title", "Layer 2 scaling solutions see record transaction volumes this quarter",
-                   "url", "https://blockworks.co", "time", "10 hours ago", "source", "Blockworks"),
-            Map.of("id", "fb-6", "title", "Central bank digital currency pilots expand across multiple regions",
-                   "url", "https://coinbase.com", "time", "12 hours ago", "source", "Coinbase")
-        );
-        return ResponseEntity.ok(fallbackNews);
+    // Per-user endpoints only serve the caller's own data, whatever the path says
+    private void requireSelf(Long userId) {
+        Long currentUserId = currentUserId();
+        if (currentUserId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (!currentUserId.equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
     }
 
-    private String formatTimestamp(String timestamp) {
-        try {
-            Instant instant = Instant.parse(timestamp);
-            Instant now = Instant.now();
-
-            long diffSeconds = now.getEpochSecond() - instant.getEpochSecond();
-
-            if (diffSeconds < 60) {
-                return "Just now";
-            } else if (diffSeconds < 3600) {
-                long minutes = diffSeconds / 60;
-                return minutes + " minute" + (minutes > 1 ? "s" : "") + " ago";
-            } else if (diffSeconds < 86400) {
-                long hours = diffSeconds / 3600;
-                return hours + " hour" + (hours > 1 ? "s" : "") + " ago";
-            } else {
-                long days = diffSeconds / 86400;
-                return days + " day" + (days > 1 ? "s" : "") + " ago";
-            }
-        } catch (Exception e) {
-            return "Recently";
-        }
+    @GetMapping("/prices")
+    public ResponseEntity<?> getPrices(@RequestParam(defaultValue = "bitcoin,ethereum,cardano,solana") String ids) {
+        return ResponseEntity.ok(cryptoPriceService.getSimplePrices(Arrays.asList(ids.split(","))));
     }
 
     @GetMapping("/ai-insight/{userId}")
-    public ResponseEntity<?> getAIInsight(@PathVariable Long userId) {
+    public ResponseEntity<?> getAIInsight(@PathVariable Long userId,
+                                          @RequestParam(defaultValue = "false") boolean regenerate) {
+        requireSelf(userId);
         try {
-            // Get user from database
-            Optional<User> userOpt = userRepository.findById(userId);
+            // Repeat visitors are served from the profile cache without touching the database
+            Optional<UserProfileCache.UserProfile> profile = userProfileCache.get(userId);
 
-            if (userOpt.isEmpty()) {
+            if (profile.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
-            User user = userOpt.get();
-
-            // Generate AI insight using the existing method
-            String insight = generateAIInsight(user);
+            // Users with the same profile segment share a cached insight unless they ask for a new one
+            String insight = aiInsightService.getInsight(profile.get(), regenerate);
 
             // Return the insight
             Map<String, Object> response = new HashMap<>();
@@ -359,350 +378,46 @@ public class UserController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.out.println("Error generating AI insight: " + e.getMessage());
+            log.warn("Error generating AI insight: " + e.getMessage());
             return ResponseEntity.status(500)
                 .body(Map.of("error", "Failed to generate AI insight"));
         }
     }
 
-    @GetMapping("/crypto-meme")
-    public ResponseEntity<?> getCryptoMeme() {
-        try {
-            Map<String, Object> meme = fetchCryptoMemeFromReddit();
-            return ResponseEntity.ok(meme);
-        } catch (Exception e) {
-            System.out.println("Crypto meme error: " + e.getMessage());
-            // Return fallback meme
-            return ResponseEntity.ok(getFallbackMeme());
-        }
-    }
-
-    private Map<String, Object> fetchCryptoMemeFromReddit() {
-        try {
-            // Get Reddit access token if needed
-            String accessToken = getRedditAccessToken();
-            if (accessToken == null) {
-                throw new Exception("Failed to get Reddit access token");
-            }
-
-            String[] subreddits = {"CryptoCurrencyMemes", "CryptoMemes"};
-            List<Map<String, Object>> allValidMemes = new ArrayList<>();
-
-            for (String subreddit : subreddits) {
-                try {
-                    List<Map<String, Object>> posts = fetchRedditPosts(subreddit, accessToken);
-
-                    // Collect ALL valid memes
-                    for (Map<String, Object> post : posts) {
-                        if (isValidMemePost(post)) {
-                            allValidMemes.add(post);
-                        }
-                    }
-                } catch (Exception e) {
-                    System.out.println("Error fetching from r/" + subreddit + ": " + e.getMessage());
-                    continue; // Try next subreddit
-                }
-            }
-
-            // If we found memes, return a random one
-            if (!allValidMemes.isEmpty()) {
-                int randomIndex = (int) (Math.random() * allValidMemes.size());
-                return formatMemePost(allValidMemes.get(randomIndex));
-            }
+    @GetMapping(value = "/ai-insight/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAIInsight(@PathVariable Long userId,
+                                      @RequestParam(defaultValue = "false") boolean regenerate) {
+        requireSelf(userId);
+        UserProfileCache.UserProfile profile = userProfileCache.get(userId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
-        } catch (Exception e) {
-            System.out.println("Reddit API error: " + e.getMessage());
-        }
-
-        return getFallbackMeme();
+        // Tokens are forwarded as they arrive; the request thread is released immediately
+        return aiInsightService.streamInsight(profile, regenerate);
     }
 
-    private String getRedditAccessToken() {
-        // Check if we have a valid cached token
-        if (redditAccessToken != null && System.currentTimeMillis() < redditTokenExpiry) {
-            return redditAccessToken;
+    // One long-lived stream per client: "news" events carry articles it hasn't seen, "vote" events the user's own
+    // vote changes. seen lists the article ids the client already shows, so it is caught up on connect
+    @GetMapping(value = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToUpdates(@RequestParam(required = false) String seen) {
+        Long userId = currentUserId();
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
         }
 
         try {
-            // Prepare OAuth request
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-            headers.set("User-Agent", redditUserAgent);
-
-            // Reddit requires Basic Auth with client credentials
-            String credentials = redditClientId + ":" + redditClientSecret;
-            String encodedCredentials = java.util.Base64.getEncoder().encodeToString(credentials.getBytes());
-            headers.set("Authorization", "Basic " + encodedCredentials);
-
-            // OAuth request body
-            String requestBody = "grant_type=client_credentials";
-            HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
-
-            // Make OAuth request
-            ResponseEntity<String> response = restTemplate.exchange(
-                "https://www.reddit.com/api/v1/access_token",
-                HttpMethod.POST,
-                entity,
-                String.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JsonNode root = objectMapper.readTree(response.getBody());
-
-                if (root.has("access_token")) {
-                    redditAccessToken = root.get("access_token").asText();
-                    int expiresIn = root.has("expires_in") ? root.get("expires_in").asInt() : 3600;
-                    redditTokenExpiry = System.currentTimeMillis() + (expiresIn - 60) * 1000L; // Expire 1 minute early
-
-                    System.out.println("Successfully obtained Reddit access token");
-                    return redditAccessToken;
-                }
-            }
-
-        } catch (Exception e) {
-            System.out.println("Error getting Reddit access token: " + e.getMessage());
+            return updateBroadcaster.subscribe(userId, seen == null ? null : Arrays.asList(seen.split(",")));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open update streams");
         }
-
-        return null;
     }
 
-    private List<Map<String, Object>> fetchRedditPosts(String subreddit, String accessToken) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + accessToken);
-        headers.set("User-Agent", redditUserAgent);
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
-        // Randomize between different sorting methods and increase limit
-        String[] sortMethods = {"hot", "new", "rising"};
-        String sortMethod = sortMethods[(int) (Math.random() * sortMethods.length)];
-
-        // Fetch more posts and add random parameter to avoid caching
-        String url = "https://oauth.reddit.com/r/" + subreddit + "/" + sortMethod + ".json?limit=25&raw_json=1&t=" + System.currentTimeMillis();
-
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-
-        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode data = root.get("data");
-
-            if (data != null && data.has("children")) {
-                JsonNode children = data.get("children");
-                List<Map<String, Object>> posts = new ArrayList<>();
-
-                for (JsonNode child : children) {
-                    JsonNode postData = child.get("data");
-                    if (postData != null) {
-                        Map<String, Object> post = new HashMap<>();
-                        post.put("title", postData.has("title") ? postData.get("title").asText() : "");
-                        post.put("url", postData.has("url") ? postData.get("url").asText() : "");
-                        post.put("permalink", postData.has("permalink") ? postData.get("permalink").asText() : "");
-                        post.put("score", postData.has("score") ? postData.get("score").asInt() : 0);
-                        post.put("subreddit", postData.has("subreddit") ? postData.get("subreddit").asText() : subreddit);
-                        post.put("author", postData.has("author") ? postData.get("author").asText() : "unknown");
-                        post.put("is_video", postData.has("is_video") ? postData.get("is_video").asBoolean() : false);
-                        post.put("post_hint", postData.has("post_hint") ? postData.get("post_hint").asText() : "");
-
-                        posts.add(post);
-                    }
-                }
-
-                return posts;
-            }
-        }
-
-        throw new Exception("Failed to fetch posts from r/" + subreddit);
-    }
-
-    private boolean isValidMemePost(Map<String, Object> post) {
-        String url = (String) post.get("url");
-        String postHint = (String) post.get("postHint");
-        String title = (String) post.get("title");
-        Integer score = (Integer) post.get("score");
-        Boolean isVideo = (Boolean) post.get("is_video");
-
-        // Basic filters for meme posts
-        if (url == null || url.isEmpty()) return false;
-        if (title == null) return false;
-        if (score == null || score < 10) return false; // Minimum score threshold
-        if (isVideo != null && isVideo) return false; // Skip videos
-
-        // Check if it's an image
-        boolean isImage = (postHint != null && postHint.equals("image")) ||
-                         url.matches(".*\\.(jpg|jpeg|png|gif|webp).*") ||
-                         url.contains("i.redd.it") ||
-                         url.contains("i.imgur.com");
-
-        if (!isImage) return false;
-
-        // Check if title suggests it's meme-related
-        String lowerTitle = title.toLowerCase();
-        boolean seemsMemey = lowerTitle.contains("meme") ||
-                           lowerTitle.contains("hodl") ||
-                           lowerTitle.contains("moon") ||
-                           lowerTitle.contains("diamond hands") ||
-                           lowerTitle.contains("paper hands") ||
-                           lowerTitle.contains("ape") ||
-                           lowerTitle.contains("rocket") ||
-                           lowerTitle.contains("stonks") ||
-                           lowerTitle.contains("buy the dip") ||
-                           title.length() < 100; // Shorter titles are often memes
-
-        return seemsMemey || score > 100; // Either seems memey or has high score
-    }
-
-    private Map<String, Object> formatMemePost(Map<String, Object> post) {
-        Map<String, Object> meme = new HashMap<>();
-        meme.put("url", post.get("url"));
-        meme.put("title", post.get("title"));
-        meme.put("alt", "Crypto meme: " + post.get("title"));
-        meme.put("source", "r/" + post.get("subreddit"));
-        meme.put("author", "u/" + post.get("author"));
-        meme.put("score", post.get("score"));
-        meme.put("reddit_url", "https://reddit.com" + post.get("permalink"));
-
-        return meme;
-    }
-
-    private Map<String, Object> getFallbackMeme() {
-        List<Map<String, Object>> fallbackMemes = Arrays.asList(
-            Map.of(
-                "url", "https://i.imgflip.com/2/1bij.jpg",
-                "title", "HODL Strong",
-                "alt", "Crypto HODL meme",
-                "source", "Static",
-                "author", "System",
-                "score", 100
-            ),
-            Map.of(
-                "url", "https://i.imgflip.com/2/30b1gx.jpg",
-                "title", "Bitcoin Price Goes Brrr",
-                "alt", "Bitcoin price meme",
-                "source", "Static",
-                "author", "System",
-                "score", 150
-            ),
-            Map.of(
-                "url", "https://i.imgflip.com/2/1ur9b0.jpg",
-                "title", "Crypto Trading Life",
-                "alt", "Crypto trading meme",
-                "source", "Static",
-                "author", "System",
-                "score", 200
-            )
-        );
-
-        return fallbackMemes.get((int) (Math.random() * fallbackMemes.size()));
-    }
-
-    private String generateAIInsight(User user) {
-        try {
-            // Build personalized prompt based on user preferences
-            String prompt = buildPersonalizedPrompt(user);
-
-            // Prepare OpenRouter API request
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + openRouterApiKey);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", "deepseek/deepseek-chat"); // Using DeepSeek as it's very cost-effective
-
-            List<Map<String, String>> messages = new ArrayList<>();
-            messages.add(Map.of("role", "system", "content", "You are a helpful crypto investment advisor. Provide concise, actionable insights in 1-2 sentences. Be professional but approachable."));
-            messages.add(Map.of("role", "user", "content", prompt));
-
-            requestBody.put("messages", messages);
-            requestBody.put("max_tokens", 100);
-            requestBody.put("temperature", 0.7);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            // Make API call to OpenRouter
-            ResponseEntity<String> response = restTemplate.exchange(
-                "https://openrouter.ai/api/v1/chat/completions",
-                HttpMethod.POST,
-                entity,
-                String.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JsonNode root = objectMapper.readTree(response.getBody());
-                JsonNode choices = root.get("choices");
-
-                if (choices != null && choices.isArray() && choices.size() > 0) {
-                    JsonNode message = choices.get(0).get("message");
-                    if (message != null && message.has("content")) {
-                        String insight = message.get("content").asText().trim();
-                        System.out.println("AI Insight generated successfully: " + insight);
-                        return insight;
-                    }
-                }
-            }
-
-        } catch (Exception e) {
-            System.out.println("OpenRouter API error: " + e.getMessage());
-        }
-
-        // Fallback to personalized static insights if API fails
-        return getFallbackInsight(user);
-    }
-
-    private String buildPersonalizedPrompt(User user) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Generate a brief crypto investment insight for a ");
-
-        // Add investor type
-        if (user.getInvestorType() != null) {
-            prompt.append(user.getInvestorType().toLowerCase());
-        } else {
-            prompt.append("crypto investor");
-        }
-
-        // Add crypto interests
-        if (user.getCryptoInterests() != null && !user.getCryptoInterests().isEmpty()) {
-            prompt.append(" interested in ");
-            prompt.append(String.join(", ", user.getCryptoInterests()));
-        }
-
-        // Add content preferences context
-        if (user.getContentPreferences() != null && !user.getContentPreferences().isEmpty()) {
-            prompt.append(". They prefer ");
-            prompt.append(String.join(", ", user.getContentPreferences()).toLowerCase());
-            prompt.append(" content");
-        }
-
-        prompt.append(". Provide a relevant insight about current market conditions or opportunities.");
-
-        return prompt.toString();
-    }
-
-    private String getFallbackInsight(User user) {
-        // Enhanced fallback insights based on user type
-        Map<String, List<String>> insights = new HashMap<>();
-
-        insights.put("hodler", Arrays.asList(
-            "Long-term holding strategies are showing positive trends with increased institutional adoption.",
-            "DCA (Dollar Cost Averaging) remains the most effective strategy for HODLers during market volatility.",
-            "Staking rewards are providing additional yield opportunities for long-term holders."
-        ));
-
-        insights.put("day trader", Arrays.asList(
-            "High volatility periods present both opportunities and risks for day trading strategies.",
-            "Technical analysis indicators suggest key support and resistance levels to watch.",
-            "Volume patterns indicate potential breakout opportunities in the next 24-48 hours."
-        ));
-
-        insights.put("nft collector", Arrays.asList(
-            "NFT marketplace activity is showing signs of consolidation with quality projects gaining traction.",
-            "Utility-based NFTs are outperforming profile picture collections in recent weeks.",
-            "New blockchain ecosystems are launching innovative NFT use cases."
-        ));
-
-        String userType = user.getInvestorType() != null ? user.getInvestorType().toLowerCase() : "hodler";
-        List<String> relevantInsights = insights.getOrDefault(userType, insights.get("hodler"));
-
-        return relevantInsights.get((int) (Math.random() * relevantInsights.size()));
+    @GetMapping("/crypto-meme")
+    public ResponseEntity<?> getCryptoMeme(HttpServletRequest request) {
+        // Drawn from the pre-validated pool, Reddit is only called by the background refresher.
+        // Signed-in users also avoid repeats; anonymous callers just get a random meme.
+        // Pool entries are immutable, so each one is serialized once per refresh
+        Map<String, Object> meme = memePoolService.getRandomMeme(currentUserId());
+        return responseCache.respond(request, "crypto-meme:" + meme.get("url"), meme, () -> meme);
     }
 
     // Inner classes for request DTOs
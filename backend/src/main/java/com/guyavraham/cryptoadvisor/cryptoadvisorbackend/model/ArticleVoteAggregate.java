@@ -0,0 +1,38 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Up/down totals per article, flushed from the in-memory counters so reads never scan feedback
+@Entity
+@Table(name = "article_vote_aggregate")
+public class ArticleVoteAggregate {
+    @Id
+    @Column(name = "article_id")
+    private String articleId;
+
+    @Column(name = "up_votes", nullable = false)
+    private long upVotes;
+
+    @Column(name = "down_votes", nullable = false)
+    private long downVotes;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ArticleVoteAggregate() {}
+
+    // Getters and Setters
+    public String getArticleId() { return articleId; }
+    public void setArticleId(String articleId) { this.articleId = articleId; }
+
+    public long getUpVotes() { return upVotes; }
+    public void setUpVotes(long upVotes) { this.upVotes = upVotes; }
+
+    public long getDownVotes() { return downVotes; }
+    public void setDownVotes(long downVotes) { this.downVotes = downVotes; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
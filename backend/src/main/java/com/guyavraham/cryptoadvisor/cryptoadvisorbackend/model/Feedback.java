@@ -3,8 +3,13 @@ package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+// The unique indexes on (user, section, article) are created by FeedbackSchemaInitializer, after it has removed
+// duplicate legacy rows; declaring them here would have ddl-auto try first and fail on such data
 @Entity
-@Table(name = "feedback")
+@Table(name = "feedback", indexes = {
+    @Index(name = "idx_feedback_user_article", columnList = "user_id, article_id"),
+    @Index(name = "idx_feedback_article", columnList = "article_id")
+})
 public class Feedback {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,6 +27,10 @@ public class Feedback {
     @Column(name = "article_id")
     private String articleId;
 
+    // News source of the article, so source affinity can be rebuilt from votes alone
+    @Column(name = "source")
+    private String source;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -62,6 +71,9 @@ public class Feedback {
     public String getArticleId() { return articleId; }
     public void setArticleId(String articleId) { this.articleId = articleId; }
 
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_investor_type", columnList = "investor_type")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,20 +25,17 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    // User preferences from onboarding
-    @ElementCollection
-    @CollectionTable(name = "user_crypto_interests",
-                    joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "crypto_asset")
+    // User preferences from onboarding, stored as arrays on the user row (GIN-indexed on Postgres,
+    // see UserSchemaInitializer) so a user loads in one query
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "crypto_interests")
     private Set<String> cryptoInterests;
 
     @Column(name = "investor_type")
     private String investorType; // HODLer, Day Trader, NFT Collector
 
-    @ElementCollection
-    @CollectionTable(name = "user_content_preferences",
-                    joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "content_type")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "content_preferences")
     private Set<String> contentPreferences; // Market News, Charts, Social, Fun
 
     @Column(name = "onboarding_completed")
@@ -0,0 +1,23 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.ArticleVoteAggregate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArticleVoteAggregateRepository extends JpaRepository<ArticleVoteAggregate, String> {
+
+    // Counters are absolute, so a flush simply overwrites whatever the row held
+    String UPSERT_AGGREGATE_SQL =
+            "INSERT INTO article_vote_aggregate (article_id, up_votes, down_votes, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (article_id) DO UPDATE SET up_votes = EXCLUDED.up_votes, " +
+            "down_votes = EXCLUDED.down_votes, updated_at = EXCLUDED.updated_at";
+
+    // Keyset ranges for the chunked recompute
+    List<ArticleVoteAggregate> findByArticleIdGreaterThanAndArticleIdLessThanEqual(String after, String last);
+
+    List<ArticleVoteAggregate> findByArticleIdGreaterThanOrderByArticleId(String after, Pageable pageable);
+}
@@ -1,7 +1,10 @@
 package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository;
 
 import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.Feedback;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +13,40 @@ import java.util.Optional;
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 
+    // Batched by FeedbackWriteBehindService, the only vote writer. PostgreSQL only: H2, which the tests run on,
+    // has no ON CONFLICT, so these statements are not covered by the test suite
+
+    // One row per (user, section, article); a repeated vote overwrites the previous one but keeps a known source
+    String UPSERT_ARTICLE_VOTE_SQL =
+            "INSERT INTO feedback (user_id, section, vote, article_id, source, created_at) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, section, article_id) DO UPDATE SET vote = EXCLUDED.vote, " +
+            "source = COALESCE(EXCLUDED.source, feedback.source), created_at = EXCLUDED.created_at";
+
+    // Section votes have no article id, so they conflict on the partial index over (user, section)
+    String UPSERT_SECTION_VOTE_SQL =
+            "INSERT INTO feedback (user_id, section, vote, article_id, created_at) VALUES (?, ?, ?, NULL, ?) " +
+            "ON CONFLICT (user_id, section) WHERE article_id IS NULL DO UPDATE SET vote = EXCLUDED.vote, created_at = EXCLUDED.created_at";
+
+    // Lightweight (articleId, vote, source) rows, no entity loading; source is null for votes older than the column
+    interface ArticleVote {
+        String getArticleId();
+        String getVote();
+        String getSource();
+    }
+
+    // Lightweight (section, vote) rows, no entity loading
+    interface SectionVote {
+        String getSection();
+        String getVote();
+    }
+
+    // Per-article totals, only used when recomputing the aggregate table
+    interface ArticleVoteCount {
+        String getArticleId();
+        long getUpVotes();
+        long getDownVotes();
+    }
+
     // Find all feedback by user and section
     List<Feedback> findByUserIdAndSection(Long userId, String section);
 
@@ -23,4 +60,20 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     List<Feedback> findByUserId(Long userId);
 
     List<Feedback> findByUserIdAndArticleId(Long userId, String articleId);
-}
\ No newline at end of file
+
+    // Served by uk_feedback_user_section_article
+    @Query("select f.articleId as articleId, f.vote as vote, f.source as source from Feedback f " +
+           "where f.userId = :userId and f.section = :section and f.articleId is not null")
+    List<ArticleVote> findArticleVotes(@Param("userId") Long userId, @Param("section") String section);
+
+    // Served by idx_feedback_user_article
+    @Query("select f.section as section, f.vote as vote from Feedback f " +
+           "where f.userId = :userId and f.articleId is null")
+    List<SectionVote> findSectionVotes(@Param("userId") Long userId);
+
+    @Query("select f.articleId as articleId, " +
+           "sum(case when f.vote = 'up' then 1 else 0 end) as upVotes, " +
+           "sum(case when f.vote = 'down' then 1 else 0 end) as downVotes " +
+           "from Feedback f where f.articleId > :after group by f.articleId order by f.articleId")
+    List<ArticleVoteCount> countVotesByArticleAfter(@Param("after") String after, Pageable pageable);
+}
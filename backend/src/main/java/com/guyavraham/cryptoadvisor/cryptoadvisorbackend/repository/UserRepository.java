@@ -2,12 +2,38 @@ package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository;
 
 import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // (investorType, cryptoInterests, contentPreferences) rows for onboarded users, one row per user
+    @Query("select u.investorType, u.cryptoInterests, u.contentPreferences from User u where u.onboardingCompleted = true")
+    List<Object[]> findOnboardedProfiles();
+
+    // Served by idx_users_investor_type
+    List<User> findByInvestorType(String investorType);
+
+    // Served by the GIN index on crypto_interests (@> is array containment)
+    @Query(value = "SELECT * FROM users WHERE crypto_interests @> ARRAY[CAST(:interest AS varchar)]", nativeQuery = true)
+    List<User> findByCryptoInterest(@Param("interest") String interest);
+
+    // Users interested in any of the given assets; && (overlap) also uses the GIN index
+    @Query(value = "SELECT * FROM users WHERE crypto_interests && CAST(:interests AS varchar[])", nativeQuery = true)
+    List<User> findByAnyCryptoInterest(@Param("interests") String[] interests);
+
+    // Swaps the hash only if it is still the one that was verified, so a concurrent password change wins
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+}
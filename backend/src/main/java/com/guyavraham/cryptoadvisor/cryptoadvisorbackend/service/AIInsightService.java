@@ -0,0 +1,502 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.UpstreamClient;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class AIInsightService {
+
+    private static final Logger log = LoggerFactory.getLogger(AIInsightService.class);
+
+    @Value("${OPENROUTER_API_KEY}")
+    private String openRouterApiKey;
+
+    @Value("${openrouter.insight-cache.ttl-ms:3600000}")
+    private long cacheTtlMs;
+
+    @Value("${openrouter.insight-cache.max-size:1000}")
+    private int cacheMaxSize;
+
+    // A stream that produces no token for this long is abandoned in favour of the fallback
+    @Value("${openrouter.stream.stall-timeout-ms:10000}")
+    private long streamStallTimeoutMs;
+
+    @Value("${openrouter.stream.timeout-ms:60000}")
+    private long streamTimeoutMs;
+
+    private static final String OPENROUTER_URL = "https://openrouter.ai/api/v1/chat/completions";
+
+    @Autowired
+    @Qualifier("openRouterUpstream")
+    private UpstreamClient openRouterUpstream;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ScheduledExecutorService stallWatchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "insight-stream-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // LRU by access order, trimmed to cacheMaxSize on every insert
+    private final Map<ProfileSegment, CachedInsight> cache = Collections.synchronizedMap(
+            new LinkedHashMap<ProfileSegment, CachedInsight>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ProfileSegment, CachedInsight> eldest) {
+                    return size() > cacheMaxSize;
+                }
+            });
+
+    // Segments with an OpenRouter call in progress, so one miss makes one upstream call
+    private final Map<ProfileSegment, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // The only profile fields the prompt depends on, normalized so equal profiles share an entry
+    public record ProfileSegment(String investorType, List<String> cryptoInterests, List<String> contentPreferences) {
+
+        public static ProfileSegment of(UserProfileCache.UserProfile profile) {
+            return of(profile.investorType(), profile.cryptoInterests(), profile.contentPreferences());
+        }
+
+        public static ProfileSegment of(String investorType, Collection<String> cryptoInterests,
+                                        Collection<String> contentPreferences) {
+            String type = investorType == null || investorType.isBlank()
+                    ? null : investorType.trim().toLowerCase(Locale.ROOT);
+            return new ProfileSegment(type, normalize(cryptoInterests), normalize(contentPreferences));
+        }
+
+        private static List<String> normalize(Collection<String> values) {
+            if (values == null) return List.of();
+            List<String> normalized = new ArrayList<>();
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    String lower = value.trim().toLowerCase(Locale.ROOT);
+                    if (!normalized.contains(lower)) normalized.add(lower);
+                }
+            }
+            Collections.sort(normalized);
+            return List.copyOf(normalized);
+        }
+    }
+
+    private record CachedInsight(String insight, long createdAt) {}
+
+    // bypassCache forces a fresh generation (the dashboard's "New Insight" button) and replaces the cached entry
+    public String getInsight(UserProfileCache.UserProfile profile, boolean bypassCache) {
+        return getInsight(ProfileSegment.of(profile), bypassCache);
+    }
+
+    // Segment-based variant for callers that only have the profile fields, e.g. the precompute job
+    public String getInsight(ProfileSegment segment, boolean bypassCache) {
+        if (!bypassCache) {
+            CachedInsight cached = cache.get(segment);
+            if (cached != null && System.currentTimeMillis() - cached.createdAt() < cacheTtlMs) {
+                hits.incrementAndGet();
+                return cached.insight();
+            }
+        }
+        misses.incrementAndGet();
+
+        String insight = loadSingleFlight(segment);
+
+        // Fallbacks are not cached so the next request retries OpenRouter
+        return insight != null ? insight : lastGoodOrFallback(segment);
+    }
+
+    // When OpenRouter is failing (or its circuit is open), an expired insight for the segment beats a generic one
+    private String lastGoodOrFallback(ProfileSegment segment) {
+        CachedInsight stale = cache.get(segment);
+        if (stale != null) {
+            meterRegistry.counter("fallback.served", "source", "insight.stale").increment();
+            return stale.insight();
+        }
+        meterRegistry.counter("fallback.served", "source", "insight").increment();
+        return getFallbackInsight(segment.investorType());
+    }
+
+    // Used by the precompute job; returns false when OpenRouter failed and nothing was stored
+    public boolean precompute(ProfileSegment segment) {
+        return loadSingleFlight(segment) != null;
+    }
+
+    // True if the segment has a cached insight that stays valid for at least minRemainingMs
+    public boolean isCached(ProfileSegment segment, long minRemainingMs) {
+        CachedInsight cached = cache.get(segment);
+        return cached != null && cached.createdAt() + cacheTtlMs - System.currentTimeMillis() > minRemainingMs;
+    }
+
+    // Concurrent callers for the same segment share one OpenRouter call; null means it failed
+    private String loadSingleFlight(ProfileSegment segment) {
+        CompletableFuture<String> ownLoad = new CompletableFuture<>();
+        CompletableFuture<String> existing = loading.putIfAbsent(segment, ownLoad);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        String insight = null;
+        try {
+            insight = generateAIInsight(segment);
+            if (insight != null) {
+                cache.put(segment, new CachedInsight(insight, System.currentTimeMillis()));
+            }
+            return insight;
+        } finally {
+            ownLoad.complete(insight);
+            loading.remove(segment, ownLoad);
+        }
+    }
+
+    // Returns null when OpenRouter fails so callers can decide on the fallback
+    private String generateAIInsight(ProfileSegment segment) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("Authorization", "Bearer " + openRouterApiKey);
+
+            Map<String, Object> requestBody = buildRequestBody(segment, false);
+
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+
+            // Make API call to OpenRouter; only choices[0].message.content is read off the stream
+            String content = openRouterUpstream.exchange(
+                OPENROUTER_URL,
+                HttpMethod.POST,
+                entity,
+                AIInsightService::decodeCompletionContent
+            );
+
+            if (content != null) {
+                String insight = content.trim();
+                log.info("AI Insight generated successfully: " + insight);
+                return insight;
+            }
+
+        } catch (UpstreamClient.CircuitOpenException e) {
+            // Short-circuited without a network call, nothing worth logging per request
+        } catch (Exception e) {
+            log.warn("OpenRouter API error: " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    // Streams the insight as SSE "token" events, ending with "done" (full text) or "fallback" on failure/stall
+    public SseEmitter streamInsight(UserProfileCache.UserProfile profile, boolean bypassCache) {
+        ProfileSegment segment = ProfileSegment.of(profile);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        if (!bypassCache) {
+            CachedInsight cached = cache.get(segment);
+            if (cached != null && System.currentTimeMillis() - cached.createdAt() < cacheTtlMs) {
+                hits.incrementAndGet();
+                try {
+                    emitter.send(SseEmitter.event().name("done").data(Map.of("text", cached.insight()), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (IOException e) {
+                    emitter.completeWithError(e);
+                }
+                return emitter;
+            }
+        }
+        misses.incrementAndGet();
+
+        InsightStream stream = new InsightStream(segment, emitter);
+        emitter.onTimeout(() -> stream.finish(false));
+        emitter.onError(e -> stream.cancel());
+        emitter.onCompletion(stream::cancel);
+
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(OPENROUTER_URL))
+                    .header("Authorization", "Bearer " + openRouterApiKey)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "text/event-stream")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(buildRequestBody(segment, true))))
+                    .build();
+
+            // Streaming uses the JDK client API directly so tokens are pushed to us without a thread blocked
+            // on the socket; the call holds an OpenRouter bulkhead permit until the stream finishes
+            stream.startCall();
+            stream.startWatchdog();
+            openRouterUpstream.getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(stream))
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            log.warn("OpenRouter stream error: " + error.getMessage());
+                            stream.finish(false);
+                        } else if (response.statusCode() / 100 != 2) {
+                            log.warn("OpenRouter stream returned status " + response.statusCode());
+                            stream.finish(false);
+                        }
+                    });
+        } catch (UpstreamClient.CircuitOpenException e) {
+            // Short-circuited before any network call; the fallback is the expected outcome
+            log.debug("OpenRouter circuit open, streaming fallback insight");
+            stream.finish(false);
+        } catch (Exception e) {
+            log.warn("OpenRouter stream error: " + e.getMessage());
+            stream.finish(false);
+        }
+
+        return emitter;
+    }
+
+    // Receives OpenRouter's SSE lines on the HTTP client's threads and forwards content deltas
+    private class InsightStream implements Flow.Subscriber<String> {
+        private final ProfileSegment segment;
+        private final SseEmitter emitter;
+        private final StringBuilder text = new StringBuilder();
+        private Flow.Subscription subscription;
+        private ScheduledFuture<?> watchdog;
+        private volatile long lastTokenAt = System.currentTimeMillis();
+        private boolean finished = false;
+        private UpstreamClient.Call call;
+
+        InsightStream(ProfileSegment segment, SseEmitter emitter) {
+            this.segment = segment;
+            this.emitter = emitter;
+        }
+
+        // Throws RejectedExecutionException when OpenRouter's bulkhead is full; the caller serves the fallback
+        void startCall() {
+            call = openRouterUpstream.begin();
+        }
+
+        void startWatchdog() {
+            watchdog = stallWatchdog.scheduleAtFixedRate(() -> {
+                if (System.currentTimeMillis() - lastTokenAt > streamStallTimeoutMs) {
+                    log.warn("OpenRouter stream stalled, serving fallback insight");
+                    finish(false);
+                }
+            }, 1, 1, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public synchronized void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (finished) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public synchronized void onNext(String line) {
+            // Lines starting with ':' are keep-alive comments
+            if (finished || !line.startsWith("data:")) return;
+
+            String payload = line.substring(5).trim();
+            if (payload.equals("[DONE]")) {
+                finish(text.length() > 0);
+                return;
+            }
+
+            try {
+                String content = decodeChunkContent(payload);
+                if (content != null && !content.isEmpty()) {
+                    lastTokenAt = System.currentTimeMillis();
+                    text.append(content);
+                    // JSON keeps leading spaces and newlines in tokens intact
+                    emitter.send(SseEmitter.event().name("token").data(Map.of("text", content), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException e) {
+                // Browser went away, stop pulling tokens
+                cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            log.warn("OpenRouter stream error: " + throwable.getMessage());
+            finish(false);
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            finish(text.length() > 0);
+        }
+
+        synchronized void finish(boolean success) {
+            if (finished) return;
+            finished = true;
+            stopUpstream(success);
+
+            try {
+                if (success) {
+                    String insight = text.toString().trim();
+                    cache.put(segment, new CachedInsight(insight, System.currentTimeMillis()));
+                    log.info("AI Insight streamed successfully: " + insight);
+                    emitter.send(SseEmitter.event().name("done").data(Map.of("text", insight), MediaType.APPLICATION_JSON));
+                } else {
+                    String fallback = lastGoodOrFallback(segment);
+                    emitter.send(SseEmitter.event().name("fallback").data(Map.of("text", fallback), MediaType.APPLICATION_JSON));
+                }
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }
+
+        synchronized void cancel() {
+            if (finished) return;
+            finished = true;
+            // The browser left, which says nothing about OpenRouter's health
+            stopUpstream(true);
+        }
+
+        private void stopUpstream(boolean success) {
+            if (watchdog != null) watchdog.cancel(false);
+            if (subscription != null) subscription.cancel();
+            if (call != null) call.end(success);
+        }
+    }
+
+    private Map<String, Object> buildRequestBody(ProfileSegment segment, boolean stream) {
+        // Build personalized prompt based on user preferences
+        String prompt = buildPersonalizedPrompt(segment);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", "deepseek/deepseek-chat"); // Using DeepSeek as it's very cost-effective
+
+        List<Map<String, String>> messages = new ArrayList<>();
+        messages.add(Map.of("role", "system", "content", "You are a helpful crypto investment advisor. Provide concise, actionable insights in 1-2 sentences. Be professional but approachable."));
+        messages.add(Map.of("role", "user", "content", prompt));
+
+        requestBody.put("messages", messages);
+        requestBody.put("max_tokens", 100);
+        requestBody.put("temperature", 0.7);
+        if (stream) {
+            requestBody.put("stream", true);
+        }
+
+        return requestBody;
+    }
+
+    static String decodeCompletionContent(InputStream body) throws IOException {
+        try (JsonParser parser = JsonStreams.open(body)) {
+            return JsonStreams.firstChoiceContent(parser, "message");
+        }
+    }
+
+    static String decodeChunkContent(String payload) throws IOException {
+        try (JsonParser parser = JsonStreams.open(payload)) {
+            return JsonStreams.firstChoiceContent(parser, "delta");
+        }
+    }
+
+    static String buildPersonalizedPrompt(ProfileSegment segment) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Generate a brief crypto investment insight for a ");
+
+        // Add investor type
+        if (segment.investorType() != null) {
+            prompt.append(segment.investorType());
+        } else {
+            prompt.append("crypto investor");
+        }
+
+        // Add crypto interests
+        if (!segment.cryptoInterests().isEmpty()) {
+            prompt.append(" interested in ");
+            prompt.append(String.join(", ", segment.cryptoInterests()));
+        }
+
+        // Add content preferences context
+        if (!segment.contentPreferences().isEmpty()) {
+            prompt.append(". They prefer ");
+            prompt.append(String.join(", ", segment.contentPreferences()));
+            prompt.append(" content");
+        }
+
+        prompt.append(". Provide a relevant insight about current market conditions or opportunities.");
+
+        return prompt.toString();
+    }
+
+    public String getFallbackInsight(String investorType) {
+        // Enhanced fallback insights based on user type
+        Map<String, List<String>> insights = new HashMap<>();
+
+        insights.put("hodler", Arrays.asList(
+            "Long-term holding strategies are showing positive trends with increased institutional adoption.",
+            "DCA (Dollar Cost Averaging) remains the most effective strategy for HODLers during market volatility.",
+            "Staking rewards are providing additional yield opportunities for long-term holders."
+        ));
+
+        insights.put("day trader", Arrays.asList(
+            "High volatility periods present both opportunities and risks for day trading strategies.",
+            "Technical analysis indicators suggest key support and resistance levels to watch.",
+            "Volume patterns indicate potential breakout opportunities in the next 24-48 hours."
+        ));
+
+        insights.put("nft collector", Arrays.asList(
+            "NFT marketplace activity is showing signs of consolidation with quality projects gaining traction.",
+            "Utility-based NFTs are outperforming profile picture collections in recent weeks.",
+            "New blockchain ecosystems are launching innovative NFT use cases."
+        ));
+
+        String userType = investorType != null ? investorType.toLowerCase() : "hodler";
+        List<String> relevantInsights = insights.getOrDefault(userType, insights.get("hodler"));
+
+        return relevantInsights.get((int) (Math.random() * relevantInsights.size()));
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "ai-insight", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "ai-insight", "result", "miss").register(meterRegistry);
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "ai-insight"), cache);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stallWatchdog.shutdownNow();
+    }
+}
@@ -0,0 +1,279 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.ArticleVoteAggregate;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.ArticleVoteAggregateRepository;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.FeedbackRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Live up/down totals per article, kept in memory and flushed to article_vote_aggregate in the background
+@Service
+public class ArticleVoteAggregateService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleVoteAggregateService.class);
+
+    // Guard against a single request asking for an unbounded id list
+    public static final int MAX_ARTICLES_PER_REQUEST = 100;
+
+    @Autowired
+    private ArticleVoteAggregateRepository aggregateRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Articles whose totals are kept in memory; the least recently used clean ones are dropped after a flush
+    // and read back from article_vote_aggregate when needed again
+    @Value("${feedback.aggregate.max-articles:50000}")
+    private int maxArticles;
+
+    private final Map<String, VoteCounts> counts = new ConcurrentHashMap<>();
+
+    // Articles whose counters changed since the last flush; never evicted before they are written
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    // Bumped on every eviction, so a read that raced with one doesn't cache totals older than the flushed ones
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Striped counters, so concurrent votes on a hot article don't contend on one value
+    private static final class VoteCounts {
+        private final LongAdder up = new LongAdder();
+        private final LongAdder down = new LongAdder();
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        VoteCounts(long upVotes, long downVotes) {
+            up.add(upVotes);
+            down.add(downVotes);
+        }
+
+        void add(String vote, int delta) {
+            if ("up".equals(vote)) {
+                up.add(delta);
+            } else if ("down".equals(vote)) {
+                down.add(delta);
+            }
+        }
+
+        Map<String, Long> toMap() {
+            lastUsed = System.currentTimeMillis();
+            return Map.of("up", up.sum(), "down", down.sum());
+        }
+    }
+
+    // Off by default: the stored totals are read lazily per article, so startup doesn't scan the feedback table
+    @Value("${feedback.aggregate.reconcile-on-startup:false}")
+    private boolean reconcileOnStartup;
+
+    @Value("${feedback.aggregate.reconcile.chunk-size:1000}")
+    private int reconcileChunkSize;
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "article-votes"), counts);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", "article-votes").register(meterRegistry);
+        // Runs before the write-behind starts, so no vote can land between counting and rewriting
+        if (reconcileOnStartup) reconcile();
+    }
+
+    // The stored totals can drift from the raw votes (a crash before the last flush, votes written by an older
+    // version). Walks feedback in article id order, a chunk at a time, and rewrites the totals that disagree
+    void reconcile() {
+        int corrected = 0;
+        String after = "";
+        try {
+            while (true) {
+                List<FeedbackRepository.ArticleVoteCount> chunk =
+                        feedbackRepository.countVotesByArticleAfter(after, PageRequest.of(0, reconcileChunkSize));
+                if (chunk.isEmpty()) break;
+                String last = chunk.getLast().getArticleId();
+
+                Map<String, ArticleVoteAggregate> stored = new HashMap<>();
+                for (ArticleVoteAggregate aggregate :
+                        aggregateRepository.findByArticleIdGreaterThanAndArticleIdLessThanEqual(after, last)) {
+                    stored.put(aggregate.getArticleId(), aggregate);
+                }
+                List<Object[]> corrections = new ArrayList<>();
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (FeedbackRepository.ArticleVoteCount row : chunk) {
+                    ArticleVoteAggregate aggregate = stored.remove(row.getArticleId());
+                    if (aggregate == null || aggregate.getUpVotes() != row.getUpVotes()
+                            || aggregate.getDownVotes() != row.getDownVotes()) {
+                        corrections.add(new Object[] {row.getArticleId(), row.getUpVotes(), row.getDownVotes(), now});
+                    }
+                }
+                addZeroed(stored.values(), corrections, now);
+                corrected += writeCorrections(corrections);
+                after = last;
+            }
+
+            // Stored totals past the last voted article
+            while (true) {
+                List<ArticleVoteAggregate> chunk = aggregateRepository.findByArticleIdGreaterThanOrderByArticleId(
+                        after, PageRequest.of(0, reconcileChunkSize));
+                if (chunk.isEmpty()) break;
+                List<Object[]> corrections = new ArrayList<>();
+                addZeroed(chunk, corrections, Timestamp.valueOf(LocalDateTime.now()));
+                corrected += writeCorrections(corrections);
+                after = chunk.getLast().getArticleId();
+            }
+        } catch (Exception e) {
+            log.warn("Stopped recomputing vote totals after article '" + after + "': " + e.getMessage());
+        }
+        if (corrected > 0) {
+            log.info("Recomputed vote totals for " + corrected + " articles from feedback");
+        }
+    }
+
+    // Stored totals for articles that no longer have any votes
+    private static void addZeroed(Collection<ArticleVoteAggregate> aggregates, List<Object[]> corrections,
+                                  Timestamp now) {
+        for (ArticleVoteAggregate aggregate : aggregates) {
+            if (aggregate.getUpVotes() != 0 || aggregate.getDownVotes() != 0) {
+                corrections.add(new Object[] {aggregate.getArticleId(), 0L, 0L, now});
+            }
+        }
+    }
+
+    private int writeCorrections(List<Object[]> corrections) {
+        if (corrections.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate(ArticleVoteAggregateRepository.UPSERT_AGGREGATE_SQL, corrections);
+        return corrections.size();
+    }
+
+    // Votes arrive here after their batch commits, with the vote they replaced
+    @EventListener
+    public void onVoteRecorded(VoteRecordedEvent event) {
+        if (!event.isArticleVote() || !event.changed()) return;
+
+        // compute keeps the load, the update and the dirty mark atomic with an eviction of the same article
+        counts.compute(event.articleId(), (articleId, articleCounts) -> {
+            if (articleCounts == null) articleCounts = load(articleId);
+            if (event.previousVote() != null) {
+                articleCounts.add(event.previousVote(), -1);
+            }
+            articleCounts.add(event.vote(), 1);
+            dirty.add(articleId);
+            return articleCounts;
+        });
+    }
+
+    // Articles nobody voted on are reported with zero counts
+    public Map<String, Map<String, Long>> getCounts(Collection<String> articleIds) {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String articleId : articleIds) {
+            if (articleId == null || articleId.isBlank()) continue;
+            String id = articleId.trim();
+            VoteCounts articleCounts = counts.get(id);
+            result.put(id, articleCounts != null ? articleCounts.toMap() : null);
+            if (articleCounts == null) missing.add(id);
+            if (result.size() == MAX_ARTICLES_PER_REQUEST) break;
+        }
+        if (missing.isEmpty()) return result;
+
+        // One query for every article not in memory
+        long evictionsAtLoad = evictions.get();
+        Map<String, VoteCounts> loaded = new HashMap<>();
+        for (ArticleVoteAggregate aggregate : aggregateRepository.findAllById(missing)) {
+            loaded.put(aggregate.getArticleId(), new VoteCounts(aggregate.getUpVotes(), aggregate.getDownVotes()));
+        }
+        for (String id : missing) {
+            VoteCounts fromTable = loaded.getOrDefault(id, new VoteCounts(0, 0));
+            // A vote may have created the entry meanwhile; that one wins
+            VoteCounts articleCounts = counts.computeIfAbsent(id,
+                    key -> evictions.get() == evictionsAtLoad ? fromTable : null);
+            result.put(id, (articleCounts != null ? articleCounts : fromTable).toMap());
+        }
+        return result;
+    }
+
+    private VoteCounts load(String articleId) {
+        return aggregateRepository.findById(articleId)
+                .map(aggregate -> new VoteCounts(aggregate.getUpVotes(), aggregate.getDownVotes()))
+                .orElseGet(() -> new VoteCounts(0, 0));
+    }
+
+    @Scheduled(fixedDelayString = "${feedback.aggregate.flush-interval-ms:10000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            evictExcess();
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (String articleId : dirty) {
+            // Unmark before reading, so a vote landing mid-flush marks the article again
+            dirty.remove(articleId);
+            VoteCounts articleCounts = counts.get(articleId);
+            rows.add(new Object[] {articleId, articleCounts.up.sum(), articleCounts.down.sum(), now});
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(ArticleVoteAggregateRepository.UPSERT_AGGREGATE_SQL, rows);
+        } catch (Exception e) {
+            log.warn("Failed to flush vote totals for " + rows.size() + " articles: " + e.getMessage());
+            for (Object[] row : rows) {
+                dirty.add((String) row[0]);
+            }
+        }
+        evictExcess();
+    }
+
+    // Drops the least recently used articles over maxArticles; dirty ones stay until they are written
+    private void evictExcess() {
+        int excess = counts.size() - maxArticles;
+        if (excess <= 0) return;
+
+        List<Map.Entry<String, VoteCounts>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        for (Map.Entry<String, VoteCounts> entry : entries) {
+            if (excess <= 0) break;
+            boolean[] evicted = new boolean[1];
+            counts.computeIfPresent(entry.getKey(), (articleId, articleCounts) -> {
+                if (dirty.contains(articleId)) return articleCounts;
+                evictions.incrementAndGet();
+                evicted[0] = true;
+                return null;
+            });
+            if (evicted[0]) excess--;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,267 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.UpstreamClient;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class CryptoNewsIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CryptoNewsIngestionService.class);
+
+    // Most articles the dashboard ever shows
+    public static final int MAX_ARTICLES = 6;
+
+    @Value("${CRYPTOPANIC_API_KEY}")
+    private String cryptoPanicApiKey;
+
+    @Value("${cryptopanic.fetch-limit:20}")
+    private int fetchLimit;
+
+    // Age after which a request triggers a background refresh while still serving the old snapshot
+    @Value("${cryptopanic.stale-after-ms:300000}")
+    private long staleAfterMs;
+
+    @Autowired
+    @Qualifier("cryptoPanicUpstream")
+    private UpstreamClient cryptoPanicUpstream;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Used for request-triggered revalidation so the request thread never waits on CryptoPanic
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "news-revalidate");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
+
+    // Last good snapshot, replaced as a whole so readers never see a partial update
+    private volatile NewsSnapshot snapshot;
+
+    // Serializes to the JSON shape the frontend has always received, plus the currencies the article is tagged with
+    public record NewsArticle(String id, String title, String url, String time, String source, List<Currency> currencies) {
+        public NewsArticle {
+            currencies = currencies == null ? List.of() : List.copyOf(currencies);
+        }
+    }
+
+    public record Currency(String code, String title, String slug) {}
+
+    public record NewsSnapshot(List<NewsArticle> articles, long fetchedAt) {
+        public NewsSnapshot {
+            articles = List.copyOf(articles);
+        }
+    }
+
+    private static final List<NewsArticle> FALLBACK_NEWS = List.of(
+            new NewsArticle("fb-1", "Bitcoin maintains consolidation above $60,000 as institutional interest grows",
+                    "https://cointelegraph.com", "2 hours ago", "Cointelegraph", List.of()),
+            new NewsArticle("fb-2", "Ethereum's Shanghai upgrade shows strong network adoption metrics",
+                    "https://coindesk.com", "4 hours ago", "CoinDesk", List.of()),
+            new NewsArticle("fb-3", "Major cryptocurrency exchange announces new DeFi integration features",
+                    "https://decrypt.co", "6 hours ago", "Decrypt", List.of())
+    );
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${cryptopanic.poll-interval-ms:120000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    // Returns up to limit articles from memory; only falls back to dummy data if nothing ever loaded
+    public List<NewsArticle> getArticles(int limit) {
+        return getArticles(currentSnapshot(), limit);
+    }
+
+    // For callers that already hold a snapshot, e.g. as the version of a cached response, and must serve exactly it
+    public List<NewsArticle> getArticles(NewsSnapshot current, int limit) {
+        if (current == null) {
+            log.warn("FALLBACK: Returning " + FALLBACK_NEWS.size() + " dummy articles");
+            meterRegistry.counter("fallback.served", "source", "news").increment();
+            return FALLBACK_NEWS;
+        }
+
+        int count = Math.max(0, Math.min(Math.min(limit, MAX_ARTICLES), current.articles().size()));
+        return current.articles().subList(0, count);
+    }
+
+    public NewsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Same as getSnapshot(), but kicks off a background refresh when it is missing or stale
+    public NewsSnapshot currentSnapshot() {
+        NewsSnapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.fetchedAt() > staleAfterMs) {
+            triggerRevalidation();
+        }
+        return current;
+    }
+
+    private void triggerRevalidation() {
+        if (!refreshInProgress.get()) {
+            refreshExecutor.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        if (!refreshInProgress.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<NewsArticle> articles = fetchArticles();
+            if (articles != null && !articles.isEmpty()) {
+                NewsSnapshot refreshed = new NewsSnapshot(articles, System.currentTimeMillis());
+                snapshot = refreshed;
+                log.info("News snapshot refreshed with " + articles.size() + " articles from CryptoPanic");
+                eventPublisher.publishEvent(new NewsRefreshedEvent(refreshed));
+            }
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            log.warn("News ingestion error: " + e.getMessage());
+        } finally {
+            refreshInProgress.set(false);
+        }
+    }
+
+    private List<NewsArticle> fetchArticles() {
+        String apiUrl = "https://cryptopanic.com/api/developer/v2/posts/?auth_token="
+                + cryptoPanicApiKey + "&public=true&kind=news&limit=" + fetchLimit;
+
+        List<NewsArticle> articles = cryptoPanicUpstream.exchange(apiUrl, HttpMethod.GET, null,
+                body -> decodeArticles(body, fetchLimit));
+        if (articles == null) {
+            log.warn("No results array found in API response!");
+        }
+        return articles;
+    }
+
+    // Reads up to limit articles straight off the response stream, or null if it has no results array.
+    // Only the fields we serve are materialized, and the rest of the page is never read
+    static List<NewsArticle> decodeArticles(InputStream body, int limit) throws IOException {
+        try (JsonParser parser = JsonStreams.open(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                    || !JsonStreams.findField(parser, "results")
+                    || parser.currentToken() != JsonToken.START_ARRAY) {
+                return null;
+            }
+
+            List<NewsArticle> articles = new ArrayList<>(Math.min(limit, MAX_ARTICLES * 4));
+            while (articles.size() < limit && parser.nextToken() == JsonToken.START_OBJECT) {
+                NewsArticle article = readArticle(parser);
+                if (article != null) {
+                    articles.add(article);
+                }
+            }
+
+            return articles;
+        }
+    }
+
+    private static NewsArticle readArticle(JsonParser parser) throws IOException {
+        String id = null;
+        String title = null;
+        String url = null;
+        String time = null;
+        String source = null;
+        List<Currency> currencies = List.of();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = JsonStreams.text(parser);
+                case "title" -> title = JsonStreams.text(parser);
+                case "url" -> url = JsonStreams.text(parser);
+                case "published_at" -> time = JsonStreams.text(parser);
+                case "source" -> source = readSourceTitle(parser);
+                // v2 calls them instruments, v1 currencies
+                case "instruments", "currencies" -> currencies = readCurrencies(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (title == null) return null;
+
+        return new NewsArticle(id, title,
+                url != null ? url : "#",
+                time != null ? time : "Unknown",
+                source != null ? source : "Unknown",
+                currencies);
+    }
+
+    private static List<Currency> readCurrencies(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return List.of();
+        }
+
+        List<Currency> currencies = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            String code = null;
+            String title = null;
+            String slug = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "code" -> code = JsonStreams.text(parser);
+                    case "title" -> title = JsonStreams.text(parser);
+                    case "slug" -> slug = JsonStreams.text(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (code != null) {
+                currencies.add(new Currency(code, title, slug));
+            }
+        }
+        return currencies;
+    }
+
+    // Source is nested: source.title
+    private static String readSourceTitle(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        if (!JsonStreams.findField(parser, "title")) return null;
+
+        String title = JsonStreams.text(parser);
+        JsonStreams.skipRestOfObject(parser);
+        return title;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
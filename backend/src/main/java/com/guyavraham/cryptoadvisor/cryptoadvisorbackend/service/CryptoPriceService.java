@@ -0,0 +1,215 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.UpstreamClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Service
+public class CryptoPriceService {
+
+    private static final Logger log = LoggerFactory.getLogger(CryptoPriceService.class);
+
+    // Guard against a single request asking for an unbounded coin list
+    public static final int MAX_COINS_PER_REQUEST = 25;
+
+    @Value("${coingecko.cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    // How long a request waits for another request's in-flight upstream call
+    @Value("${coingecko.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    // Ids CoinGecko answered without a price are not asked for again for this long
+    @Value("${coingecko.unknown-coin-ttl-ms:3600000}")
+    private long unknownCoinTtlMs;
+
+    @Value("${coingecko.max-unknown-coins:10000}")
+    private int maxUnknownCoins;
+
+    @Autowired
+    @Qualifier("coinGeckoUpstream")
+    private UpstreamClient coinGeckoUpstream;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, PriceQuote> quotes = new ConcurrentHashMap<>();
+
+    // Coin id -> upstream call currently fetching it, so concurrent requests share one call
+    private final Map<String, CompletableFuture<Map<String, PriceQuote>>> inFlight = new ConcurrentHashMap<>();
+
+    // Coin id -> when it may be asked for again. Keeps made-up ids (they are user input) from costing an
+    // upstream call on every request or ticker tick
+    private final Map<String, Long> unknownCoins = new ConcurrentHashMap<>();
+
+    // CoinGecko ids are short lowercase slugs; anything else is dropped rather than passed into the upstream URL
+    private static final Pattern COIN_ID = Pattern.compile("[a-z0-9-]{1,100}");
+
+    public record PriceQuote(String coin, double usd, double usd24hChange, long fetchedAt) {}
+
+    public static Set<String> normalizeCoinIds(Collection<String> coinIds) {
+        Set<String> coins = new LinkedHashSet<>();
+        for (String coinId : coinIds) {
+            if (coinId == null || coinId.isBlank()) continue;
+            String coin = coinId.trim().toLowerCase(Locale.ROOT).replace(' ', '-');
+            if (!COIN_ID.matcher(coin).matches()) continue;
+            coins.add(coin);
+            if (coins.size() == MAX_COINS_PER_REQUEST) break;
+        }
+        return coins;
+    }
+
+    // Same shape as CoinGecko's simple/price so the dashboard parsing stays unchanged
+    public Map<String, Object> getSimplePrices(Collection<String> coinIds) {
+        Map<String, Object> prices = new LinkedHashMap<>();
+        for (PriceQuote quote : getPrices(coinIds).values()) {
+            prices.put(quote.coin(), Map.of("usd", quote.usd(), "usd_24h_change", quote.usd24hChange()));
+        }
+        return prices;
+    }
+
+    // Returns quotes for the requested coins only; coins CoinGecko doesn't know are left out
+    public Map<String, PriceQuote> getPrices(Collection<String> coinIds) {
+        return getPrices(coinIds, cacheTtlMs);
+    }
+
+    // Same, but quotes older than maxAgeMs are refetched (the ticker wants fresher prices than the REST cache)
+    public Map<String, PriceQuote> getPrices(Collection<String> coinIds, long maxAgeMs) {
+        Set<String> coins = normalizeCoinIds(coinIds);
+        long now = System.currentTimeMillis();
+
+        Map<String, PriceQuote> result = new LinkedHashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        Map<String, CompletableFuture<Map<String, PriceQuote>>> waiting = new HashMap<>();
+        CompletableFuture<Map<String, PriceQuote>> ownCall = new CompletableFuture<>();
+
+        for (String coin : coins) {
+            if (isUnknownCoin(coin, now)) continue;
+
+            PriceQuote cached = quotes.get(coin);
+            if (cached != null && now - cached.fetchedAt() < maxAgeMs) {
+                result.put(coin, cached);
+                continue;
+            }
+
+            CompletableFuture<Map<String, PriceQuote>> existing = inFlight.putIfAbsent(coin, ownCall);
+            if (existing == null) {
+                toFetch.add(coin);
+            } else {
+                waiting.put(coin, existing);
+            }
+        }
+
+        if (!toFetch.isEmpty()) {
+            Map<String, PriceQuote> fetched = Map.of();
+            try {
+                fetched = fetchFromUpstream(toFetch);
+                quotes.putAll(fetched);
+                rememberUnknown(toFetch, fetched, now);
+            } catch (Exception e) {
+                log.warn("CoinGecko price error: " + e.getMessage());
+            } finally {
+                ownCall.complete(fetched);
+                for (String coin : toFetch) {
+                    inFlight.remove(coin, ownCall);
+                }
+            }
+            result.putAll(fetched);
+        }
+
+        for (Map.Entry<String, CompletableFuture<Map<String, PriceQuote>>> entry : waiting.entrySet()) {
+            try {
+                PriceQuote quote = entry.getValue().get(waitTimeoutMs, TimeUnit.MILLISECONDS).get(entry.getKey());
+                if (quote != null) {
+                    result.put(entry.getKey(), quote);
+                }
+            } catch (Exception e) {
+                log.warn("Timed out waiting for price of " + entry.getKey());
+            }
+        }
+
+        // Serve an expired quote rather than nothing when the upstream call failed
+        for (String coin : coins) {
+            if (!result.containsKey(coin) && quotes.containsKey(coin)) {
+                result.put(coin, quotes.get(coin));
+                meterRegistry.counter("fallback.served", "source", "prices").increment();
+            }
+        }
+
+        return result;
+    }
+
+    public boolean isUnknownCoin(String coin) {
+        return isUnknownCoin(coin, System.currentTimeMillis());
+    }
+
+    private boolean isUnknownCoin(String coin, long now) {
+        Long retryAt = unknownCoins.get(coin);
+        if (retryAt == null) return false;
+        if (now < retryAt) return true;
+        unknownCoins.remove(coin, retryAt);
+        return false;
+    }
+
+    // Only called after a successful response, so an upstream outage never marks real coins unknown
+    private void rememberUnknown(List<String> requested, Map<String, PriceQuote> fetched, long now) {
+        for (String coin : requested) {
+            if (fetched.containsKey(coin)) continue;
+            // Crude bound: a flood of junk ids just resets the list
+            if (unknownCoins.size() >= maxUnknownCoins) {
+                unknownCoins.clear();
+            }
+            unknownCoins.put(coin, now + unknownCoinTtlMs);
+        }
+    }
+
+    private Map<String, PriceQuote> fetchFromUpstream(List<String> coins) throws Exception {
+        String url = "https://api.coingecko.com/api/v3/simple/price?ids=" + String.join(",", coins)
+                + "&vs_currencies=usd&include_24hr_change=true";
+
+        ResponseEntity<String> response = coinGeckoUpstream.exchange(url, HttpMethod.GET, null);
+
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new Exception("CoinGecko returned " + response.getStatusCode());
+        }
+
+        JsonNode root = objectMapper.readTree(response.getBody());
+        long fetchedAt = System.currentTimeMillis();
+        Map<String, PriceQuote> fetched = new HashMap<>();
+
+        for (String coin : coins) {
+            JsonNode node = root.get(coin);
+            if (node != null && node.has("usd")) {
+                double change = node.has("usd_24h_change") ? node.get("usd_24h_change").asDouble() : 0.0;
+                fetched.put(coin, new PriceQuote(coin, node.get("usd").asDouble(), change, fetchedAt));
+            }
+        }
+
+        return fetched;
+    }
+}
@@ -0,0 +1,131 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.FeedbackRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private static final List<String> DEFAULT_COINS = List.of("bitcoin", "ethereum", "cardano", "solana");
+
+    @Autowired
+    private NewsRanker newsRanker;
+
+    @Autowired
+    private CryptoPriceService cryptoPriceService;
+
+    @Autowired
+    private MemePoolService memePoolService;
+
+    @Autowired
+    private AIInsightService aiInsightService;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Every part must finish within this long of the request start, or it is served degraded
+    @Value("${dashboard.part-timeout-ms:2500}")
+    private long partTimeoutMs;
+
+    // A dashboard part: the lookup to run and what to serve if it fails or misses the deadline
+    private record Part(String name, Callable<Object> lookup, Supplier<Object> fallback) {}
+
+    // Runs every lookup concurrently, so the page costs its slowest part rather than the sum
+    public Map<String, Object> buildDashboard(UserProfileCache.UserProfile profile) {
+        // The profile is an immutable snapshot, safe to read from the worker threads
+        Long userId = profile.id();
+        AIInsightService.ProfileSegment segment = AIInsightService.ProfileSegment.of(profile);
+        List<String> coins = !profile.cryptoInterests().isEmpty()
+                ? new ArrayList<>(profile.cryptoInterests()) : DEFAULT_COINS;
+
+        List<Part> parts = List.of(
+            new Part("news", () -> newsRanker.rank(profile, CryptoNewsIngestionService.MAX_ARTICLES), List::of),
+            new Part("articleVotes", () -> articleVotes(userId), Map::of),
+            new Part("sectionVotes", () -> sectionVotes(userId), Map::of),
+            new Part("insight", () -> aiInsightService.getInsight(segment, false),
+                    () -> aiInsightService.getFallbackInsight(segment.investorType())),
+            new Part("meme", () -> memePoolService.getRandomMeme(userId), memePoolService::getFallbackMeme),
+            new Part("prices", () -> cryptoPriceService.getSimplePrices(coins), Map::of)
+        );
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        List<String> degraded = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(partTimeoutMs);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Map<Part, Future<Object>> futures = new LinkedHashMap<>();
+            for (Part part : parts) {
+                futures.put(part, executor.submit(part.lookup()));
+            }
+
+            for (Map.Entry<Part, Future<Object>> entry : futures.entrySet()) {
+                Part part = entry.getKey();
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    dashboard.put(part.name(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    degrade(dashboard, degraded, part);
+                } catch (Exception e) {
+                    log.warn("Dashboard part " + part.name() + " degraded: " + e);
+                    degrade(dashboard, degraded, part);
+                }
+            }
+        } finally {
+            // Don't wait for parts that missed the deadline, but let them finish in the background
+            // so their caches (insight, prices) are warm for the next request
+            executor.shutdown();
+        }
+
+        dashboard.put("timestamp", System.currentTimeMillis());
+        dashboard.put("degraded", degraded);
+        return dashboard;
+    }
+
+    private void degrade(Map<String, Object> dashboard, List<String> degraded, Part part) {
+        meterRegistry.counter("fallback.served", "source", "dashboard." + part.name()).increment();
+        dashboard.put(part.name(), part.fallback().get());
+        degraded.add(part.name());
+    }
+
+    // Article id -> vote for the user's news votes; also served on its own by /article-feedback/{userId}
+    public Map<String, String> articleVotes(Long userId) {
+        Map<String, String> votes = new HashMap<>();
+        for (FeedbackRepository.ArticleVote vote : feedbackRepository.findArticleVotes(userId, "news")) {
+            votes.put(vote.getArticleId(), vote.getVote());
+        }
+        return votes;
+    }
+
+    // Section -> vote; also served on its own by /section-votes/{userId}
+    public Map<String, String> sectionVotes(Long userId) {
+        Map<String, String> votes = new HashMap<>();
+        for (FeedbackRepository.SectionVote vote : feedbackRepository.findSectionVotes(userId)) {
+            votes.put(vote.getSection(), vote.getVote());
+        }
+        return votes;
+    }
+}
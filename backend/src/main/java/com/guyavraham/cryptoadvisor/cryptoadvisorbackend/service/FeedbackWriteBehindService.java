@@ -0,0 +1,284 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.FeedbackRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Service
+// Aggregates start before and stop after this service, so no committed vote misses the counters
+@DependsOn({"feedbackSchemaInitializer", "articleVoteAggregateService"})
+public class FeedbackWriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedbackWriteBehindService.class);
+
+    // ENQUEUE acknowledges a vote once it is queued, COMMIT only after its batch is committed
+    public enum Durability { ENQUEUE, COMMIT }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${feedback.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${feedback.write-behind.batch-size:500}")
+    private int batchSize;
+
+    // How long the drain worker waits for more votes before writing a partial batch
+    @Value("${feedback.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    // How long a request may wait for queue space before it is rejected
+    @Value("${feedback.write-behind.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${feedback.write-behind.durability:ENQUEUE}")
+    private Durability durability;
+
+    @Value("${feedback.write-behind.commit-timeout-ms:5000}")
+    private long commitTimeoutMs;
+
+    private BlockingQueue<PendingVote> queue;
+    private Timer batchTimer;
+    private TransactionTemplate transactionTemplate;
+    private Thread drainWorker;
+    private volatile boolean running = true;
+
+    record PendingVote(Long userId, String section, String vote, String articleId, String source,
+                       LocalDateTime createdAt, CompletableFuture<Void> committed) {}
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        batchTimer = Timer.builder("feedback.write.batch")
+                .description("Time to write one batch of votes, previous-vote lookup included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("feedback.write.queue.size", Tags.empty(), queue);
+
+        drainWorker = new Thread(this::drainLoop, "feedback-write-behind");
+        drainWorker.setDaemon(true);
+        drainWorker.start();
+    }
+
+    // Queues a vote; throws RejectedExecutionException when the queue stays full (backpressure).
+    // source is the article's news source when known, null otherwise and for section votes
+    public void submit(Long userId, String section, String vote, String articleId, String source) {
+        PendingVote pending = new PendingVote(userId, section, vote, articleId, source,
+                LocalDateTime.now(), new CompletableFuture<>());
+
+        try {
+            if (!running || !queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Feedback queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing feedback", e);
+        }
+
+        if (durability == Durability.COMMIT) {
+            try {
+                pending.committed().get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for feedback commit", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Feedback was not committed", e);
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingVote> batch = new ArrayList<>(batchSize);
+
+        // Keeps going after shutdown is requested until the queue is empty
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingVote first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Package-private for the PostgreSQL tests, which hand it a batch directly
+    void writeBatch(List<PendingVote> batch) {
+        // Only the last vote per (user, section, article) in a batch matters, and one statement
+        // may not upsert the same key twice once the driver rewrites the batch
+        Map<String, PendingVote> latestVotes = new LinkedHashMap<>();
+        for (PendingVote vote : batch) {
+            latestVotes.put(voteKey(vote.userId(), vote.section(), vote.articleId()), vote);
+        }
+
+        Map<String, String> previousVotes;
+        try {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            previousVotes = writeVotes(latestVotes.values());
+            sample.stop(batchTimer);
+        } catch (Exception e) {
+            // One bad row rolls back the whole batch; retry row by row so only that row is lost
+            log.warn("Failed to write " + batch.size() + " feedback votes as a batch, retrying one by one: "
+                    + e.getMessage());
+            writeOneByOne(batch, latestVotes);
+            return;
+        }
+
+        for (PendingVote vote : batch) {
+            vote.committed().complete(null);
+        }
+        for (Map.Entry<String, PendingVote> entry : latestVotes.entrySet()) {
+            publish(entry.getValue(), previousVotes != null ? previousVotes.get(entry.getKey()) : null);
+        }
+    }
+
+    private void writeOneByOne(List<PendingVote> batch, Map<String, PendingVote> latestVotes) {
+        Map<String, Exception> failures = new HashMap<>();
+        Map<String, String> previousVotes = new HashMap<>();
+        for (Map.Entry<String, PendingVote> entry : latestVotes.entrySet()) {
+            try {
+                Map<String, String> previous = writeVotes(List.of(entry.getValue()));
+                if (previous != null && previous.containsKey(entry.getKey())) {
+                    previousVotes.put(entry.getKey(), previous.get(entry.getKey()));
+                }
+            } catch (Exception e) {
+                log.warn("Dropping feedback vote " + entry.getKey() + ": " + e.getMessage());
+                failures.put(entry.getKey(), e);
+            }
+        }
+
+        // Earlier votes on a key share the fate of the latest one, which replaced them
+        for (PendingVote vote : batch) {
+            Exception failure = failures.get(voteKey(vote.userId(), vote.section(), vote.articleId()));
+            if (failure != null) {
+                vote.committed().completeExceptionally(failure);
+            } else {
+                vote.committed().complete(null);
+            }
+        }
+        for (Map.Entry<String, PendingVote> entry : latestVotes.entrySet()) {
+            if (!failures.containsKey(entry.getKey())) {
+                publish(entry.getValue(), previousVotes.get(entry.getKey()));
+            }
+        }
+    }
+
+    // Upserts the votes in one transaction and returns the article votes they replaced
+    private Map<String, String> writeVotes(Collection<PendingVote> votes) {
+        List<Object[]> articleUpserts = new ArrayList<>();
+        List<Object[]> sectionUpserts = new ArrayList<>();
+        for (PendingVote vote : votes) {
+            Timestamp createdAt = Timestamp.valueOf(vote.createdAt());
+            if (vote.articleId() != null) {
+                articleUpserts.add(new Object[] {vote.userId(), vote.section(), vote.vote(), vote.articleId(),
+                        vote.source(), createdAt});
+            } else {
+                sectionUpserts.add(new Object[] {vote.userId(), vote.section(), vote.vote(), createdAt});
+            }
+        }
+
+        return transactionTemplate.execute(status -> {
+            // This worker is the only vote writer, so votes read here are exactly what the upserts replace
+            Map<String, String> previous = loadPreviousArticleVotes(votes);
+            if (!articleUpserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(FeedbackRepository.UPSERT_ARTICLE_VOTE_SQL, articleUpserts);
+            }
+            if (!sectionUpserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(FeedbackRepository.UPSERT_SECTION_VOTE_SQL, sectionUpserts);
+            }
+            return previous;
+        });
+    }
+
+    // After commit and outside the write's error handling, so a failing listener neither reports the vote
+    // as unwritten nor skips the events for the rest of the batch
+    private void publish(PendingVote vote, String previousVote) {
+        try {
+            eventPublisher.publishEvent(new VoteRecordedEvent(vote.userId(), vote.section(), vote.articleId(),
+                    previousVote, vote.vote()));
+        } catch (Exception e) {
+            log.warn("Vote listener failed for user " + vote.userId() + ": " + e.getMessage());
+        }
+    }
+
+    // One query per batch for the current article votes the batch is about to overwrite
+    private Map<String, String> loadPreviousArticleVotes(Collection<PendingVote> votes) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder keys = new StringBuilder();
+        for (PendingVote vote : votes) {
+            if (vote.articleId() == null) continue;
+            keys.append(keys.length() == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            args.add(vote.userId());
+            args.add(vote.section());
+            args.add(vote.articleId());
+        }
+
+        Map<String, String> previous = new HashMap<>();
+        if (args.isEmpty()) return previous;
+
+        jdbcTemplate.query(
+                "SELECT user_id, section, article_id, vote FROM feedback WHERE (user_id, section, article_id) IN ("
+                        + keys + ")",
+                rs -> {
+                    previous.put(voteKey(rs.getLong("user_id"), rs.getString("section"), rs.getString("article_id")),
+                            rs.getString("vote"));
+                },
+                args.toArray());
+        return previous;
+    }
+
+    private static String voteKey(Long userId, String section, String articleId) {
+        return userId + ":" + section + ":" + articleId;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Stop accepting votes, then let the worker flush what is already queued
+        running = false;
+        drainWorker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
@@ -0,0 +1,193 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class InsightPrecomputeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InsightPrecomputeJob.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AIInsightService aiInsightService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${openrouter.precompute.enabled:true}")
+    private boolean enabled;
+
+    @Value("${openrouter.precompute.interval-ms:1800000}")
+    private long intervalMs;
+
+    // Parallel OpenRouter calls the job may have open at once
+    @Value("${openrouter.precompute.concurrency:4}")
+    private int concurrency;
+
+    @Value("${openrouter.precompute.max-calls-per-minute:30}")
+    private int maxCallsPerMinute;
+
+    private final Object rateLock = new Object();
+    private long nextCallAt = 0;
+
+    // A run can take minutes of rate-limited calls; it gets its own thread so the shared scheduler thread
+    // (news, memes, token refresh, heartbeats, ticker, ...) is never held by it
+    private final ExecutorService runExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "insight-precompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean runInProgress = new AtomicBoolean(false);
+
+    private Counter producedCounter;
+    private Counter failedCounter;
+    private Counter skippedCounter;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        producedCounter = segmentCounter("produced");
+        failedCounter = segmentCounter("failed");
+        skippedCounter = segmentCounter("skipped");
+        runTimer = Timer.builder("insight.precompute.runs").register(meterRegistry);
+        Gauge.builder("insight.precompute.running", runInProgress, running -> running.get() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    private Counter segmentCounter(String result) {
+        return Counter.builder("insight.precompute.segments").tag("result", result).register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${openrouter.precompute.initial-delay-ms:60000}",
+               fixedDelayString = "${openrouter.precompute.interval-ms:1800000}")
+    public void precomputeInsights() {
+        if (!enabled) return;
+
+        // fixedDelay now only spaces the hand-offs, so skip a tick while the previous run is still going
+        if (!runInProgress.compareAndSet(false, true)) {
+            log.info("Insight precompute still running, skipping this tick");
+            return;
+        }
+        try {
+            runExecutor.execute(() -> {
+                try {
+                    runPrecompute();
+                } catch (Exception e) {
+                    log.warn("Insight precompute failed: " + e.getMessage());
+                } finally {
+                    runInProgress.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            runInProgress.set(false);
+        }
+    }
+
+    private void runPrecompute() {
+        long start = System.currentTimeMillis();
+        Set<AIInsightService.ProfileSegment> segments = loadActiveSegments();
+
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int skipped = 0;
+
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+
+        // Closing the executor waits for every submitted call to finish
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (AIInsightService.ProfileSegment segment : segments) {
+                // Entries that outlive the next run don't need regenerating yet
+                if (aiInsightService.isCached(segment, intervalMs)) {
+                    skipped++;
+                    continue;
+                }
+
+                executor.submit(() -> {
+                    try {
+                        permits.acquire();
+                        try {
+                            awaitRateLimit();
+                            if (aiInsightService.precompute(segment)) {
+                                produced.incrementAndGet();
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failed.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        producedCounter.increment(produced.get());
+        failedCounter.increment(failed.get());
+        skippedCounter.increment(skipped);
+        runTimer.record(durationMs, TimeUnit.MILLISECONDS);
+
+        log.info("Insight precompute: " + produced.get() + " produced, " + failed.get() + " failed, "
+                + skipped + " still cached out of " + segments.size() + " segments in " + durationMs + " ms");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    // Spaces call starts evenly so the job stays under OpenRouter's rate limit
+    private void awaitRateLimit() throws InterruptedException {
+        long spacingMs = TimeUnit.MINUTES.toMillis(1) / Math.max(1, maxCallsPerMinute);
+        long waitMs;
+        synchronized (rateLock) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(now, nextCallAt);
+            nextCallAt = slot + spacingMs;
+            waitMs = slot - now;
+        }
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+    }
+
+    // Distinct (investorType, cryptoInterests, contentPreferences) combinations of onboarded users
+    @SuppressWarnings("unchecked")
+    private Set<AIInsightService.ProfileSegment> loadActiveSegments() {
+        Set<AIInsightService.ProfileSegment> segments = new LinkedHashSet<>();
+        for (Object[] row : userRepository.findOnboardedProfiles()) {
+            segments.add(AIInsightService.ProfileSegment.of(
+                    (String) row[0],
+                    (Collection<String>) row[1],
+                    (Collection<String>) row[2]));
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,67 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Small helpers for decoding upstream payloads token by token instead of building a JsonNode tree
+final class JsonStreams {
+
+    // Thread-safe and reused; also keeps the canonicalized field-name table warm between calls
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonStreams() {}
+
+    static JsonParser open(InputStream in) throws IOException {
+        return FACTORY.createParser(in);
+    }
+
+    static JsonParser open(String json) throws IOException {
+        return FACTORY.createParser(json);
+    }
+
+    // Moves to the value of the named field of the current object, skipping everything before it.
+    // Returns false if the object ends first
+    static boolean findField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (name.equals(field)) return true;
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    // Skips the remaining fields of the current object, leaving the parser on its END_OBJECT
+    static void skipRestOfObject(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    // Current scalar as text (numbers and booleans included); null for JSON null, objects and arrays
+    static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    // choices[0].<part>.content of an OpenRouter (OpenAI-style) completion or stream chunk
+    static String firstChoiceContent(JsonParser parser, String part) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT
+                || !findField(parser, "choices") || parser.currentToken() != JsonToken.START_ARRAY
+                || parser.nextToken() != JsonToken.START_OBJECT
+                || !findField(parser, part) || parser.currentToken() != JsonToken.START_OBJECT
+                || !findField(parser, "content")) {
+            return null;
+        }
+        return text(parser);
+    }
+}
@@ -0,0 +1,80 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts failed logins per email and per client IP, so repeat offenders are turned away before any bcrypt work
+@Service
+public class LoginAttemptLimiter {
+
+    @Value("${auth.login.max-failures-per-email:5}")
+    private int maxFailuresPerEmail;
+
+    @Value("${auth.login.max-failures-per-ip:20}")
+    private int maxFailuresPerIp;
+
+    // Failures are forgotten this long after the first one in a window
+    @Value("${auth.login.failure-window-ms:900000}")
+    private long failureWindowMs;
+
+    private final Map<String, FailureWindow> failuresByEmail = new ConcurrentHashMap<>();
+    private final Map<String, FailureWindow> failuresByIp = new ConcurrentHashMap<>();
+
+    private record FailureWindow(int count, long startedAt) {}
+
+    // Seconds until the caller may try again, or 0 if the attempt is allowed
+    public long retryAfterSeconds(String email, String ip) {
+        long now = System.currentTimeMillis();
+        long blockedUntil = Math.max(
+                blockedUntil(lookup(failuresByEmail, normalize(email)), maxFailuresPerEmail, now),
+                blockedUntil(lookup(failuresByIp, ip), maxFailuresPerIp, now));
+        return blockedUntil > now ? Math.max(1, (blockedUntil - now + 999) / 1000) : 0;
+    }
+
+    public void recordFailure(String email, String ip) {
+        long now = System.currentTimeMillis();
+        increment(failuresByEmail, normalize(email), now);
+        increment(failuresByIp, ip, now);
+    }
+
+    // A correct password clears the account's failures; the IP keeps its count until the window ends
+    public void recordSuccess(String email) {
+        String key = normalize(email);
+        if (key != null) {
+            failuresByEmail.remove(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        failuresByEmail.values().removeIf(window -> now - window.startedAt() >= failureWindowMs);
+        failuresByIp.values().removeIf(window -> now - window.startedAt() >= failureWindowMs);
+    }
+
+    private long blockedUntil(FailureWindow window, int maxFailures, long now) {
+        if (window == null || window.count() < maxFailures) return 0;
+        long windowEnd = window.startedAt() + failureWindowMs;
+        return windowEnd > now ? windowEnd : 0;
+    }
+
+    private static FailureWindow lookup(Map<String, FailureWindow> failures, String key) {
+        return key == null ? null : failures.get(key);
+    }
+
+    private void increment(Map<String, FailureWindow> failures, String key, long now) {
+        if (key == null) return;
+        failures.compute(key, (k, window) -> window == null || now - window.startedAt() >= failureWindowMs
+                ? new FailureWindow(1, now)
+                : new FailureWindow(window.count() + 1, window.startedAt()));
+    }
+
+    private static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
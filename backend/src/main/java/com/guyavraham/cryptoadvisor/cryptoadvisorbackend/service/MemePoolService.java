@@ -0,0 +1,294 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.UpstreamClient;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+@Service
+public class MemePoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(MemePoolService.class);
+
+    private static final String[] SUBREDDITS = {"CryptoCurrencyMemes", "CryptoMemes"};
+    private static final Pattern IMAGE_URL = Pattern.compile(".*\\.(jpg|jpeg|png|gif|webp).*");
+
+    // Constant instances, so the response cache can reuse their serialized form
+    private static final List<Map<String, Object>> FALLBACK_MEMES = List.of(
+            Map.of("url", "https://i.imgflip.com/2/1bij.jpg", "title", "HODL Strong", "alt", "Crypto HODL meme",
+                    "source", "Static", "author", "System", "score", 100),
+            Map.of("url", "https://i.imgflip.com/2/30b1gx.jpg", "title", "Bitcoin Price Goes Brrr", "alt", "Bitcoin price meme",
+                    "source", "Static", "author", "System", "score", 150),
+            Map.of("url", "https://i.imgflip.com/2/1ur9b0.jpg", "title", "Crypto Trading Life", "alt", "Crypto trading meme",
+                    "source", "Static", "author", "System", "score", 200)
+    );
+
+    // Recent-meme history is kept for at most this many users
+    private static final int MAX_TRACKED_USERS = 10000;
+
+    @Autowired
+    private RedditTokenProvider redditTokenProvider;
+
+    @Value("${reddit.user.agent:CryptoAdvisor/1.0}")
+    private String redditUserAgent;
+
+    // How many of a user's most recent memes to avoid repeating, 0 disables tracking
+    @Value("${reddit.meme.no-repeat:5}")
+    private int noRepeatCount;
+
+    @Autowired
+    @Qualifier("redditUpstream")
+    private UpstreamClient redditUpstream;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // The fields of a Reddit listing entry the pool needs; everything else in the (large) listing is skipped
+    record RedditPost(String title, String url, String permalink, int score, String subreddit,
+                      String author, boolean isVideo, String postHint) {}
+
+    // Formatted, validated memes; replaced as a whole on every refresh
+    private volatile List<Map<String, Object>> pool = List.of();
+
+    private final Map<Long, Deque<String>> recentByUser = Collections.synchronizedMap(
+            new LinkedHashMap<Long, Deque<String>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Deque<String>> eldest) {
+                    return size() > MAX_TRACKED_USERS;
+                }
+            });
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${reddit.meme.refresh-interval-ms:600000}")
+    public void refreshPool() {
+        try {
+            String accessToken = redditTokenProvider.getAccessToken();
+            if (accessToken == null) {
+                throw new Exception("Failed to get Reddit access token");
+            }
+
+            List<CompletableFuture<List<RedditPost>>> fetches = new ArrayList<>();
+            for (String subreddit : SUBREDDITS) {
+                fetches.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return fetchRedditPosts(subreddit, accessToken);
+                    } catch (Exception e) {
+                        log.warn("Error fetching from r/" + subreddit + ": " + e.getMessage());
+                        return List.of();
+                    }
+                }, fetchExecutor));
+            }
+
+            // Deduplicate by permalink, keeping only posts that pass validation
+            Map<String, Map<String, Object>> memesByPermalink = new LinkedHashMap<>();
+            for (CompletableFuture<List<RedditPost>> fetch : fetches) {
+                for (RedditPost post : fetch.join()) {
+                    if (isValidMemePost(post)) {
+                        memesByPermalink.putIfAbsent(post.permalink(), formatMemePost(post));
+                    }
+                }
+            }
+
+            if (!memesByPermalink.isEmpty()) {
+                pool = List.copyOf(memesByPermalink.values());
+                log.info("Meme pool refreshed with " + pool.size() + " memes");
+            }
+        } catch (Exception e) {
+            // Keep serving the previous pool
+            log.warn("Reddit API error: " + e.getMessage());
+        }
+    }
+
+    // Random draw from memory; avoids the user's last few memes when the pool is large enough
+    public Map<String, Object> getRandomMeme(Long userId) {
+        List<Map<String, Object>> current = pool;
+        if (current.isEmpty()) {
+            meterRegistry.counter("fallback.served", "source", "meme").increment();
+            return getFallbackMeme();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (userId == null || noRepeatCount <= 0 || current.size() <= noRepeatCount) {
+            return current.get(random.nextInt(current.size()));
+        }
+
+        Deque<String> recent = recentByUser.computeIfAbsent(userId, id -> new ArrayDeque<>());
+        synchronized (recent) {
+            // Any draw has at least a (size - N) / size chance of being new, so a few tries are enough
+            Map<String, Object> meme = current.get(random.nextInt(current.size()));
+            for (int attempt = 0; attempt < 8 && recent.contains((String) meme.get("reddit_url")); attempt++) {
+                meme = current.get(random.nextInt(current.size()));
+            }
+
+            recent.addLast((String) meme.get("reddit_url"));
+            while (recent.size() > noRepeatCount) {
+                recent.removeFirst();
+            }
+            return meme;
+        }
+    }
+
+    private List<RedditPost> fetchRedditPosts(String subreddit, String accessToken) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + accessToken);
+        headers.set("User-Agent", redditUserAgent);
+
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+
+        // Randomize between different sorting methods to vary the pool between refreshes
+        String[] sortMethods = {"hot", "new", "rising"};
+        String sortMethod = sortMethods[ThreadLocalRandom.current().nextInt(sortMethods.length)];
+
+        String url = "https://oauth.reddit.com/r/" + subreddit + "/" + sortMethod + ".json?limit=25&raw_json=1";
+
+        List<RedditPost> posts = redditUpstream.exchange(url, HttpMethod.GET, entity,
+                body -> decodePosts(body, subreddit));
+        if (posts == null) {
+            throw new Exception("Failed to fetch posts from r/" + subreddit);
+        }
+        return posts;
+    }
+
+    // Reads data.children[].data off the response stream, or null if the listing has no children
+    static List<RedditPost> decodePosts(InputStream body, String subreddit) throws IOException {
+        try (JsonParser parser = JsonStreams.open(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                    || !JsonStreams.findField(parser, "data") || parser.currentToken() != JsonToken.START_OBJECT
+                    || !JsonStreams.findField(parser, "children") || parser.currentToken() != JsonToken.START_ARRAY) {
+                return null;
+            }
+
+            List<RedditPost> posts = new ArrayList<>(25);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                // Each child is {"kind": "t3", "data": {...}}
+                if (JsonStreams.findField(parser, "data")) {
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        posts.add(readPost(parser, subreddit));
+                    } else {
+                        parser.skipChildren();
+                    }
+                    JsonStreams.skipRestOfObject(parser);
+                }
+            }
+
+            return posts;
+        }
+    }
+
+    private static RedditPost readPost(JsonParser parser, String subreddit) throws IOException {
+        String title = "";
+        String url = "";
+        String permalink = "";
+        int score = 0;
+        String postSubreddit = subreddit;
+        String author = "unknown";
+        boolean isVideo = false;
+        String postHint = "";
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "title" -> title = orDefault(JsonStreams.text(parser), "");
+                case "url" -> url = orDefault(JsonStreams.text(parser), "");
+                case "permalink" -> permalink = orDefault(JsonStreams.text(parser), "");
+                case "score" -> score = parser.getValueAsInt(0);
+                case "subreddit" -> postSubreddit = orDefault(JsonStreams.text(parser), subreddit);
+                case "author" -> author = orDefault(JsonStreams.text(parser), "unknown");
+                case "is_video" -> isVideo = parser.getValueAsBoolean(false);
+                case "post_hint" -> postHint = orDefault(JsonStreams.text(parser), "");
+                // selftext, preview, awards, flair, ... are skipped without being materialized
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new RedditPost(title, url, permalink, score, postSubreddit, author, isVideo, postHint);
+    }
+
+    private static String orDefault(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    static boolean isValidMemePost(RedditPost post) {
+        String url = post.url();
+        String postHint = post.postHint();
+        String title = post.title();
+        int score = post.score();
+
+        // Basic filters for meme posts
+        if (url == null || url.isEmpty()) return false;
+        if (title == null) return false;
+        if (score < 10) return false; // Minimum score threshold
+        if (post.isVideo()) return false; // Skip videos
+
+        // Check if it's an image
+        boolean isImage = (postHint != null && postHint.equals("image")) ||
+                         IMAGE_URL.matcher(url).matches() ||
+                         url.contains("i.redd.it") ||
+                         url.contains("i.imgur.com");
+
+        if (!isImage) return false;
+
+        // Check if title suggests it's meme-related
+        String lowerTitle = title.toLowerCase();
+        boolean seemsMemey = lowerTitle.contains("meme") ||
+                           lowerTitle.contains("hodl") ||
+                           lowerTitle.contains("moon") ||
+                           lowerTitle.contains("diamond hands") ||
+                           lowerTitle.contains("paper hands") ||
+                           lowerTitle.contains("ape") ||
+                           lowerTitle.contains("rocket") ||
+                           lowerTitle.contains("stonks") ||
+                           lowerTitle.contains("buy the dip") ||
+                           title.length() < 100; // Shorter titles are often memes
+
+        return seemsMemey || score > 100; // Either seems memey or has high score
+    }
+
+    private Map<String, Object> formatMemePost(RedditPost post) {
+        return Map.of(
+                "url", post.url(),
+                "title", post.title(),
+                "alt", "Crypto meme: " + post.title(),
+                "source", "r/" + post.subreddit(),
+                "author", "u/" + post.author(),
+                "score", post.score(),
+                "reddit_url", "https://reddit.com" + post.permalink());
+    }
+
+    public Map<String, Object> getFallbackMeme() {
+        return FALLBACK_MEMES.get(ThreadLocalRandom.current().nextInt(FALLBACK_MEMES.size()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,296 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.FeedbackRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user ordering of recent news, computed from memory only. Every refresh rebuilds an index from currency
+// (code, name or slug) to the recent articles tagged with it; each user's source affinity (net up minus down votes
+// per source) is loaded once from their news votes, which store the article's source, and then kept current from
+// vote events
+@Service
+public class NewsRanker {
+
+    // A matching interest outweighs a day of age; a liked source nudges, it doesn't take over the feed
+    private static final double INTEREST_WEIGHT = 2.0;
+    private static final double SOURCE_WEIGHT = 0.25;
+    private static final int MAX_SOURCE_AFFINITY = 4;
+
+    @Autowired
+    private CryptoNewsIngestionService cryptoNewsIngestionService;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Recent articles kept across refreshes, so interests can match more than the latest page
+    @Value("${news-ranking.pool-size:200}")
+    private int poolSize;
+
+    // Recency score halves every this long
+    @Value("${news-ranking.half-life-ms:21600000}")
+    private long halfLifeMs;
+
+    @Value("${news-ranking.max-users:10000}")
+    private int maxUsers;
+
+    // Article ids remembered for mapping votes to sources, well past the pool
+    @Value("${news-ranking.max-article-sources:20000}")
+    private int maxArticleSources;
+
+    private volatile NewsIndex index = NewsIndex.EMPTY;
+
+    // Article id -> source, for recording the source with new votes and for votes stored before it was
+    private final Map<String, String> sourceByArticle = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > maxArticleSources;
+                }
+            });
+
+    // User id -> source -> net votes; LRU by access order, trimmed to maxUsers on every insert
+    private final Map<Long, Map<String, Integer>> affinities = Collections.synchronizedMap(
+            new LinkedHashMap<Long, Map<String, Integer>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Map<String, Integer>> eldest) {
+                    return size() > maxUsers;
+                }
+            });
+
+    // Bumped on every news vote, so a load that raced with one doesn't put stale affinities back
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong affinityLoads = new AtomicLong();
+    private Timer rankingTimer;
+
+    // publishedAt in epoch millis; keys are the lowercased code, name and slug of every tagged currency
+    record Entry(CryptoNewsIngestionService.NewsArticle article, long publishedAt, Set<String> keys) {}
+
+    // entries newest first; byCurrency maps a key to positions in entries
+    record NewsIndex(List<Entry> entries, Map<String, int[]> byCurrency) {
+        static final NewsIndex EMPTY = new NewsIndex(List.of(), Map.of());
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        rankingTimer = Timer.builder("news.rankings").register(meterRegistry);
+        Gauge.builder("news.ranking.pool.size", this, ranker -> ranker.index.entries().size()).register(meterRegistry);
+        FunctionCounter.builder("news.ranking.affinity.loads", affinityLoads, AtomicLong::get).register(meterRegistry);
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "news-affinity"), affinities);
+    }
+
+    @EventListener
+    public void onNewsRefreshed(NewsRefreshedEvent event) {
+        CryptoNewsIngestionService.NewsSnapshot snapshot = event.snapshot();
+        for (CryptoNewsIngestionService.NewsArticle article : snapshot.articles()) {
+            if (article.id() != null) sourceByArticle.put(article.id(), article.source());
+        }
+        index = buildIndex(snapshot.articles(), snapshot.fetchedAt(), index, poolSize);
+    }
+
+    @EventListener
+    public void onVoteRecorded(VoteRecordedEvent event) {
+        if (!event.isArticleVote() || !"news".equals(event.section()) || !event.changed()) return;
+
+        String source = sourceByArticle.get(event.articleId());
+        // Under the map's lock, so a load that started before this vote can't put its stale result back after it
+        synchronized (affinities) {
+            generation.incrementAndGet();
+            Map<String, Integer> userAffinity = affinities.get(event.userId());
+            // Not cached yet: the first ranking loads it, this vote included
+            if (source == null || userAffinity == null) return;
+
+            int delta = voteValue(event.vote()) - voteValue(event.previousVote());
+            userAffinity.merge(source, delta, Integer::sum);
+        }
+    }
+
+    // Null once the article has aged out of the remembered ids
+    public String sourceOf(String articleId) {
+        return articleId == null ? null : sourceByArticle.get(articleId);
+    }
+
+    // Top articles for this user; falls back to the plain snapshot order until the first refresh has been indexed
+    public List<CryptoNewsIngestionService.NewsArticle> rank(UserProfileCache.UserProfile profile, int limit) {
+        NewsIndex current = index;
+        if (current.entries().isEmpty()) {
+            return cryptoNewsIngestionService.getArticles(limit);
+        }
+        // Keeps the snapshot revalidating as for the unpersonalized feed
+        cryptoNewsIngestionService.currentSnapshot();
+
+        Map<String, Integer> userAffinity = affinityFor(profile.id());
+
+        return rankingTimer.record(() -> rank(current, profile.cryptoInterests(), userAffinity,
+                System.currentTimeMillis(), halfLifeMs, Math.min(limit, CryptoNewsIngestionService.MAX_ARTICLES)));
+    }
+
+    // One indexed query the first time a user is ranked, memory afterwards. Survives restarts because votes carry
+    // their source; votes stored before that fall back to the remembered article sources
+    private Map<String, Integer> affinityFor(Long userId) {
+        Map<String, Integer> cached = affinities.get(userId);
+        if (cached != null) return cached;
+
+        long generationAtLoad = generation.get();
+        Map<String, Integer> loaded = new ConcurrentHashMap<>();
+        for (FeedbackRepository.ArticleVote vote : feedbackRepository.findArticleVotes(userId, "news")) {
+            String source = vote.getSource() != null ? vote.getSource() : sourceByArticle.get(vote.getArticleId());
+            if (source != null) {
+                loaded.merge(source, voteValue(vote.getVote()), Integer::sum);
+            }
+        }
+        affinityLoads.incrementAndGet();
+
+        synchronized (affinities) {
+            if (generation.get() == generationAtLoad) {
+                affinities.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    static NewsIndex buildIndex(List<CryptoNewsIngestionService.NewsArticle> articles, long fetchedAt,
+                                NewsIndex previous, int poolSize) {
+        // The fresh copy of an article wins over the pooled one
+        Set<String> ids = new HashSet<>();
+        List<Entry> entries = new ArrayList<>();
+        for (CryptoNewsIngestionService.NewsArticle article : articles) {
+            if (article.id() == null || ids.add(article.id())) {
+                entries.add(new Entry(article, publishedAt(article.time(), fetchedAt), currencyKeys(article)));
+            }
+        }
+        for (Entry entry : previous.entries()) {
+            if (entry.article().id() != null && ids.add(entry.article().id())) {
+                entries.add(entry);
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(Entry::publishedAt).reversed());
+        if (entries.size() > poolSize) {
+            entries = entries.subList(0, poolSize);
+        }
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            for (String key : entries.get(i).keys()) {
+                positions.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> byCurrency = new HashMap<>(positions.size() * 2);
+        positions.forEach((key, list) -> byCurrency.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new NewsIndex(List.copyOf(entries), byCurrency);
+    }
+
+    // Scores every pooled article once (a few hundred multiply-adds) and keeps the best limit
+    static List<CryptoNewsIngestionService.NewsArticle> rank(NewsIndex index, Collection<String> interests,
+                                                             Map<String, Integer> sourceAffinity, long now,
+                                                             long halfLifeMs, int limit) {
+        List<Entry> entries = index.entries();
+        int size = entries.size();
+
+        // Interest overlap straight from the index, counting each article once per interest
+        int[] overlap = new int[size];
+        for (String interest : normalizeInterests(interests)) {
+            int[] positions = index.byCurrency().get(interest);
+            if (positions == null) continue;
+            for (int position : positions) {
+                overlap[position]++;
+            }
+        }
+
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+            double age = Math.max(0, now - entry.publishedAt());
+            double recency = Math.pow(0.5, age / halfLifeMs);
+            int affinity = sourceAffinity.getOrDefault(entry.article().source(), 0);
+            affinity = Math.max(-MAX_SOURCE_AFFINITY, Math.min(MAX_SOURCE_AFFINITY, affinity));
+            scores[i] = INTEREST_WEIGHT * overlap[i] + recency + SOURCE_WEIGHT * affinity;
+        }
+
+        // Partial selection; limit is at most MAX_ARTICLES, ties keep the newer article
+        int count = Math.max(0, Math.min(limit, size));
+        List<CryptoNewsIngestionService.NewsArticle> ranked = new ArrayList<>(count);
+        boolean[] taken = new boolean[size];
+        for (int n = 0; n < count; n++) {
+            int best = -1;
+            for (int i = 0; i < size; i++) {
+                if (!taken[i] && (best < 0 || scores[i] > scores[best])) best = i;
+            }
+            taken[best] = true;
+            ranked.add(entries.get(best).article());
+        }
+        return ranked;
+    }
+
+    // Interests are names from onboarding ("Shiba Inu"); the index holds names, slugs and codes
+    private static Set<String> normalizeInterests(Collection<String> interests) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String interest : interests) {
+            if (interest != null && !interest.isBlank()) {
+                keys.add(interest.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return keys;
+    }
+
+    private static Set<String> currencyKeys(CryptoNewsIngestionService.NewsArticle article) {
+        Set<String> keys = new HashSet<>();
+        for (CryptoNewsIngestionService.Currency currency : article.currencies()) {
+            addKey(keys, currency.code());
+            addKey(keys, currency.title());
+            addKey(keys, currency.slug());
+        }
+        return Set.copyOf(keys);
+    }
+
+    private static void addKey(Set<String> keys, String value) {
+        if (value != null && !value.isBlank()) {
+            keys.add(value.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // Undated articles count as published when they were fetched
+    private static long publishedAt(String time, long fetchedAt) {
+        try {
+            return Instant.parse(time).toEpochMilli();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return fetchedAt;
+        }
+    }
+
+    private static int voteValue(String vote) {
+        if ("up".equals(vote)) return 1;
+        if ("down".equals(vote)) return -1;
+        return 0;
+    }
+}
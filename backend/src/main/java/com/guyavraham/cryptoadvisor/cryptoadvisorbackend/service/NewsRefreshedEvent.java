@@ -0,0 +1,4 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+// Published after the ingestion service swaps in a new snapshot
+public record NewsRefreshedEvent(CryptoNewsIngestionService.NewsSnapshot snapshot) {}
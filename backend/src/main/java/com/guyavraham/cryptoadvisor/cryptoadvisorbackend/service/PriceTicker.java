@@ -0,0 +1,309 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live prices over WebSocket. One sampler fetches the union of every session's coins per tick through
+// CryptoPriceService (so REST and WebSocket share one upstream path), encodes each changed quote once, and hands the
+// same message to every session subscribed to that coin. A session that can't keep up only ever holds the latest
+// message per coin
+@Service
+public class PriceTicker {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceTicker.class);
+
+    @Autowired
+    private CryptoPriceService cryptoPriceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ticker.interval-ms:15000}")
+    private long intervalMs;
+
+    @Value("${ticker.max-sessions:10000}")
+    private int maxSessions;
+
+    // Subscribe messages allowed per session per minute; past this the session is closed
+    @Value("${ticker.max-subscribes-per-minute:10}")
+    private int maxSubscribesPerMinute;
+
+    // Distinct coins sampled per tick across all sessions; coins past this are not tracked for new subscribers
+    @Value("${ticker.max-tracked-coins:250}")
+    private int maxTrackedCoins;
+
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, TickerSession> sessions = new ConcurrentHashMap<>();
+
+    // Last quote and its encoded message per coin, handed to new subscribers right away
+    private final Map<String, Tick> latest = new ConcurrentHashMap<>();
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong encoded = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong rejectedCoins = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    record Tick(CryptoPriceService.PriceQuote quote, TextMessage message) {}
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("ticker.sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("ticker.coins.tracked", latest, Map::size).register(meterRegistry);
+        FunctionCounter.builder("ticker.ticks", ticks, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ticker.messages.encoded", encoded, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ticker.messages.sent", sent, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ticker.messages.conflated", conflated, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ticker.coins.rejected", rejectedCoins, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("ticker.subscribes.rate.limited", rateLimited, AtomicLong::get).register(meterRegistry);
+    }
+
+    public void open(WebSocketSession session) throws IOException {
+        if (sessions.size() >= maxSessions) {
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        sessions.put(session.getId(), new TickerSession(session));
+    }
+
+    // Replaces the session's coin list; quotes already known are sent immediately, new coins are sampled now.
+    // Ids CoinGecko recently didn't know are dropped, and so are new coins once maxTrackedCoins are tracked
+    public void subscribe(WebSocketSession session, Collection<String> coinIds) throws IOException {
+        TickerSession tickerSession = sessions.get(session.getId());
+        if (tickerSession == null) return;
+
+        if (!tickerSession.allowSubscribe(System.currentTimeMillis())) {
+            rateLimited.incrementAndGet();
+            close(session);
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Too many subscribe messages"));
+            return;
+        }
+
+        Set<String> tracked = trackedCoins(tickerSession);
+        Set<String> coins = new LinkedHashSet<>();
+        for (String coin : CryptoPriceService.normalizeCoinIds(coinIds)) {
+            if (cryptoPriceService.isUnknownCoin(coin)
+                    || (!tracked.contains(coin) && tracked.size() + coins.size() >= maxTrackedCoins)) {
+                rejectedCoins.incrementAndGet();
+                continue;
+            }
+            coins.add(coin);
+        }
+        tickerSession.coins = Set.copyOf(coins);
+
+        Map<String, TextMessage> known = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String coin : coins) {
+            Tick tick = latest.get(coin);
+            if (tick != null) {
+                known.put(coin, tick.message());
+            } else {
+                missing.add(coin);
+            }
+        }
+
+        tickerSession.offer(known);
+        if (!missing.isEmpty()) {
+            sendExecutor.execute(() -> sample(missing));
+        }
+    }
+
+    public void close(WebSocketSession session) {
+        TickerSession tickerSession = sessions.remove(session.getId());
+        if (tickerSession != null) {
+            tickerSession.discard();
+        }
+    }
+
+    // Coins subscribed by every session except the given one
+    private Set<String> trackedCoins(TickerSession except) {
+        Set<String> tracked = new HashSet<>();
+        for (TickerSession tickerSession : sessions.values()) {
+            if (tickerSession != except) tracked.addAll(tickerSession.coins);
+        }
+        return tracked;
+    }
+
+    @Scheduled(fixedDelayString = "${ticker.interval-ms:15000}")
+    public void tick() {
+        // Nobody watching, no upstream traffic
+        if (sessions.isEmpty()) return;
+
+        // Subscribe already caps the union; this only guards against races between concurrent subscribes
+        Set<String> union = new LinkedHashSet<>();
+        for (TickerSession tickerSession : sessions.values()) {
+            for (String coin : tickerSession.coins) {
+                if (union.size() >= maxTrackedCoins) break;
+                union.add(coin);
+            }
+        }
+        if (union.isEmpty()) return;
+
+        ticks.incrementAndGet();
+        sample(union);
+    }
+
+    private void sample(Collection<String> coinIds) {
+        List<String> coins = new ArrayList<>(coinIds);
+        Map<String, TextMessage> changed = new HashMap<>();
+
+        // CoinGecko gets at most MAX_COINS_PER_REQUEST ids per call
+        for (int from = 0; from < coins.size(); from += CryptoPriceService.MAX_COINS_PER_REQUEST) {
+            List<String> batch = coins.subList(from, Math.min(from + CryptoPriceService.MAX_COINS_PER_REQUEST, coins.size()));
+            // Half an interval, so every tick sees a fresh quote without fetching twice per tick
+            for (CryptoPriceService.PriceQuote quote : cryptoPriceService.getPrices(batch, intervalMs / 2).values()) {
+                Tick previous = latest.get(quote.coin());
+                if (previous != null && previous.quote().usd() == quote.usd()
+                        && previous.quote().usd24hChange() == quote.usd24hChange()) {
+                    continue;
+                }
+
+                TextMessage message = encode(quote);
+                if (message == null) continue;
+                latest.put(quote.coin(), new Tick(quote, message));
+                changed.put(quote.coin(), message);
+            }
+        }
+
+        if (changed.isEmpty()) return;
+        for (TickerSession tickerSession : sessions.values()) {
+            tickerSession.offer(changed);
+        }
+    }
+
+    // Same per-coin fields as /prices, plus the coin id and when it was fetched
+    private TextMessage encode(CryptoPriceService.PriceQuote quote) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("coin", quote.coin());
+        payload.put("usd", quote.usd());
+        payload.put("usd_24h_change", quote.usd24hChange());
+        payload.put("fetchedAt", quote.fetchedAt());
+        try {
+            encoded.incrementAndGet();
+            return new TextMessage(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not encode price of " + quote.coin() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdownNow();
+    }
+
+    final class TickerSession {
+        private final WebSocketSession session;
+        volatile Set<String> coins = Set.of();
+
+        // Guarded by this. Latest unsent message per coin; a newer tick replaces the one still waiting
+        private final Map<String, TextMessage> pending = new LinkedHashMap<>();
+        private boolean draining;
+        private boolean discarded;
+        private long subscribeWindowStart;
+        private int subscribesInWindow;
+
+        TickerSession(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void offer(Map<String, TextMessage> messages) {
+            Set<String> subscribed = coins;
+            boolean schedule = false;
+            synchronized (this) {
+                if (discarded) return;
+                for (Map.Entry<String, TextMessage> entry : messages.entrySet()) {
+                    if (!subscribed.contains(entry.getKey())) continue;
+                    if (pending.put(entry.getKey(), entry.getValue()) != null) {
+                        conflated.incrementAndGet();
+                    }
+                    schedule = true;
+                }
+                if (!schedule || draining) return;
+                draining = true;
+            }
+            sendExecutor.execute(this::drain);
+        }
+
+        // Fixed one-minute windows
+        synchronized boolean allowSubscribe(long now) {
+            if (now - subscribeWindowStart >= 60_000) {
+                subscribeWindowStart = now;
+                subscribesInWindow = 0;
+            }
+            return ++subscribesInWindow <= maxSubscribesPerMinute;
+        }
+
+        synchronized void discard() {
+            discarded = true;
+            pending.clear();
+        }
+
+        // Runs on a virtual thread, at most one per session, which also keeps sendMessage calls serial
+        private void drain() {
+            while (true) {
+                List<TextMessage> batch;
+                synchronized (this) {
+                    if (discarded || pending.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+
+                try {
+                    for (TextMessage message : batch) {
+                        session.sendMessage(message);
+                        sent.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    close(session);
+                    try {
+                        session.close(CloseStatus.SERVER_ERROR);
+                    } catch (IOException ignored) {
+                        // Already gone
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
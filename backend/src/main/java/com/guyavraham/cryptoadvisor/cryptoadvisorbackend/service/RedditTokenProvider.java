@@ -0,0 +1,223 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.UpstreamClient;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class RedditTokenProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(RedditTokenProvider.class);
+
+    @Value("${reddit.client.id:your-reddit-client-id}")
+    private String redditClientId;
+
+    @Value("${reddit.client.secret:your-reddit-client-secret}")
+    private String redditClientSecret;
+
+    @Value("${reddit.user.agent:CryptoAdvisor/1.0}")
+    private String redditUserAgent;
+
+    // Start refreshing this long before the token actually expires
+    @Value("${reddit.token.refresh-ahead-ms:300000}")
+    private long refreshAheadMs;
+
+    @Value("${reddit.token.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${reddit.token.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    // Callers without any valid token wait at most this long for the refresh in progress
+    @Value("${reddit.token.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Autowired
+    @Qualifier("redditOAuthUpstream")
+    private UpstreamClient redditOAuthUpstream;
+
+    // Only one thread talks to the OAuth endpoint at a time
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Replaced as a whole, so readers always see a consistent value/expiry pair
+    private volatile AccessToken token;
+
+    // Guarded by refreshLock
+    private long currentBackoffMs = 0;
+    private volatile long nextAttemptAt = 0;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer refreshSuccessTimer;
+    private Timer refreshFailureTimer;
+
+    private record AccessToken(String value, long expiresAt, long refreshAt) {}
+
+    @PostConstruct
+    public void registerMetrics() {
+        refreshSuccessTimer = Timer.builder("reddit.token.refresh").tag("outcome", "success").register(meterRegistry);
+        refreshFailureTimer = Timer.builder("reddit.token.refresh").tag("outcome", "failure").register(meterRegistry);
+        Gauge.builder("reddit.token.valid", this, provider -> {
+            AccessToken current = provider.token;
+            return current != null && System.currentTimeMillis() < current.expiresAt() ? 1 : 0;
+        }).register(meterRegistry);
+    }
+
+    // Returns a valid token, or null if none could be obtained
+    public String getAccessToken() {
+        AccessToken current = token;
+        long now = System.currentTimeMillis();
+
+        if (current != null && now < current.refreshAt()) {
+            return current.value();
+        }
+
+        if (current != null && now < current.expiresAt()) {
+            // Still valid: refresh if nobody else is, otherwise keep using the current token
+            if (refreshLock.tryLock()) {
+                try {
+                    refreshIfDue();
+                } finally {
+                    refreshLock.unlock();
+                }
+            }
+            return token.value();
+        }
+
+        // No usable token: wait for the single in-progress refresh instead of starting another
+        try {
+            if (refreshLock.tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                try {
+                    refreshIfDue();
+                } finally {
+                    refreshLock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        AccessToken refreshed = token;
+        return refreshed != null && System.currentTimeMillis() < refreshed.expiresAt() ? refreshed.value() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${reddit.token.check-interval-ms:30000}")
+    public void refreshAhead() {
+        AccessToken current = token;
+        if (current != null && System.currentTimeMillis() >= current.refreshAt() && refreshLock.tryLock()) {
+            try {
+                refreshIfDue();
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    // Must be called with refreshLock held
+    private void refreshIfDue() {
+        long now = System.currentTimeMillis();
+        AccessToken current = token;
+
+        // Another thread refreshed while we were waiting for the lock
+        if (current != null && now < current.refreshAt()) {
+            return;
+        }
+        // Still backing off after a failed attempt
+        if (now < nextAttemptAt) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            token = requestToken();
+            currentBackoffMs = 0;
+            nextAttemptAt = 0;
+            refreshSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Successfully obtained Reddit access token");
+        } catch (Exception e) {
+            refreshFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            currentBackoffMs = currentBackoffMs == 0 ? initialBackoffMs : Math.min(currentBackoffMs * 2, maxBackoffMs);
+            nextAttemptAt = System.currentTimeMillis() + currentBackoffMs;
+            log.warn("Error getting Reddit access token: " + e.getMessage()
+                    + " (retrying in " + currentBackoffMs + " ms)");
+        }
+    }
+
+    private AccessToken requestToken() throws Exception {
+        // Prepare OAuth request
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.set("User-Agent", redditUserAgent);
+
+        // Reddit requires Basic Auth with client credentials
+        String credentials = redditClientId + ":" + redditClientSecret;
+        String encodedCredentials = Base64.getEncoder().encodeToString(credentials.getBytes());
+        headers.set("Authorization", "Basic " + encodedCredentials);
+
+        HttpEntity<String> entity = new HttpEntity<>("grant_type=client_credentials", headers);
+
+        TokenResponse response = redditOAuthUpstream.exchange(
+            "https://www.reddit.com/api/v1/access_token",
+            HttpMethod.POST,
+            entity,
+            RedditTokenProvider::decodeTokenResponse
+        );
+
+        if (response.accessToken() == null) {
+            throw new Exception("No access_token in OAuth response");
+        }
+
+        int expiresIn = response.expiresIn();
+        long now = System.currentTimeMillis();
+        long expiresAt = now + (expiresIn - 60) * 1000L; // Expire 1 minute early
+        // Never schedule the refresh earlier than halfway through the token's lifetime
+        long refreshAt = Math.max(now + (expiresAt - now) / 2, expiresAt - refreshAheadMs);
+
+        return new AccessToken(response.accessToken(), expiresAt, refreshAt);
+    }
+
+    record TokenResponse(String accessToken, int expiresIn) {}
+
+    static TokenResponse decodeTokenResponse(InputStream body) throws IOException {
+        String accessToken = null;
+        int expiresIn = 3600;
+
+        try (JsonParser parser = JsonStreams.open(body)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "access_token" -> accessToken = JsonStreams.text(parser);
+                        case "expires_in" -> expiresIn = parser.getValueAsInt(3600);
+                        default -> parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        return new TokenResponse(accessToken, expiresIn);
+    }
+}
@@ -0,0 +1,345 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes new articles and the subscriber's own vote changes over SSE. Producers only append to each subscriber's
+// bounded buffer; sending happens on a virtual thread per busy subscriber, so a slow client only delays itself.
+// Idle subscribers hold no thread, just the async request and a small buffer
+@Service
+public class UpdateBroadcaster {
+
+    // Enough to remember every article of a few snapshots
+    private static final int MAX_SEEN_ARTICLES = 256;
+
+    @Autowired
+    private CryptoNewsIngestionService cryptoNewsIngestionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${updates.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    // Pending updates per subscriber; past this the oldest one is dropped
+    @Value("${updates.buffer-size:32}")
+    private int bufferSize;
+
+    // Clients reconnect after this; 0 would keep the request open forever
+    @Value("${updates.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, List<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Article ids of the last snapshot seen, to skip the fan-out when a refresh brought nothing new
+    private volatile Set<String> lastArticleIds = Set.of();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+
+    public record ArticleUpdate(CryptoNewsIngestionService.NewsArticle article) {}
+
+    public record VoteUpdate(String section, String articleId, String vote) {}
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("updates.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        FunctionCounter.builder("updates.queued", queued, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("updates.dropped", dropped, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("updates.send.failures", sendFailures, AtomicLong::get).register(meterRegistry);
+    }
+
+    // seenArticleIds are the articles the client already shows; anything newer than the newest of them in the
+    // current snapshot is sent right away. Null means the client is up to date with the current snapshot
+    public SseEmitter subscribe(Long userId, Collection<String> seenArticleIds) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many update subscribers");
+        }
+
+        // Until the subscriber is registered the slot taken above is ours to give back; after that, remove() does it
+        Subscriber registered = null;
+        try {
+            SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+            Subscriber subscriber = new Subscriber(userId, emitter);
+
+            CryptoNewsIngestionService.NewsSnapshot snapshot = cryptoNewsIngestionService.getSnapshot();
+            List<CryptoNewsIngestionService.NewsArticle> current = snapshot != null ? snapshot.articles() : List.of();
+
+            // The snapshot is newest first: the client's newest article and everything older count as seen
+            int firstKnown = 0;
+            if (seenArticleIds != null) {
+                Set<String> seen = Set.copyOf(seenArticleIds);
+                while (firstKnown < current.size() && !seen.contains(current.get(firstKnown).id())) {
+                    firstKnown++;
+                }
+            }
+            List<String> seenIds = new ArrayList<>();
+            for (CryptoNewsIngestionService.NewsArticle article : current.subList(firstKnown, current.size())) {
+                if (article.id() != null) seenIds.add(article.id());
+            }
+            subscriber.markSeen(seenIds);
+
+            emitter.onCompletion(() -> remove(subscriber));
+            emitter.onTimeout(() -> remove(subscriber));
+            emitter.onError(error -> remove(subscriber));
+
+            subscribers.add(subscriber);
+            registered = subscriber;
+            subscribersByUser.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+
+            // Catch the client up on anything newer than what it has, and flush the headers right away
+            subscriber.offerArticles(current);
+            subscriber.heartbeat();
+            return emitter;
+        } catch (RuntimeException e) {
+            if (registered != null) {
+                remove(registered);
+            } else {
+                subscriberCount.decrementAndGet();
+            }
+            throw e;
+        }
+    }
+
+    @EventListener
+    public void onNewsRefreshed(NewsRefreshedEvent event) {
+        List<CryptoNewsIngestionService.NewsArticle> articles = event.snapshot().articles();
+        Set<String> ids = new LinkedHashSet<>();
+        for (CryptoNewsIngestionService.NewsArticle article : articles) {
+            if (article.id() != null) ids.add(article.id());
+        }
+
+        boolean hasNew = !lastArticleIds.containsAll(ids);
+        lastArticleIds = ids;
+        if (!hasNew) return;
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerArticles(articles);
+        }
+    }
+
+    @EventListener
+    public void onVoteRecorded(VoteRecordedEvent event) {
+        if (!event.changed()) return;
+
+        List<Subscriber> userSubscribers = subscribersByUser.get(event.userId());
+        if (userSubscribers == null) return;
+
+        VoteUpdate update = new VoteUpdate(event.section(), event.articleId(), event.vote());
+        // Keyed by item, so a burst of votes on the same article collapses to the latest
+        String key = "vote:" + event.section() + ":" + event.articleId();
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(key, update);
+        }
+    }
+
+    // Comment lines keep proxies from closing idle connections and surface dead clients
+    @Scheduled(fixedDelayString = "${updates.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) return;
+        subscriberCount.decrementAndGet();
+        subscriber.close();
+
+        subscribersByUser.computeIfPresent(subscriber.userId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        sendExecutor.shutdownNow();
+    }
+
+    final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+
+        // Guarded by this. Insertion-ordered; an update for a key already pending replaces it in place
+        private final LinkedHashMap<String, Object> buffer = new LinkedHashMap<>();
+        private final Set<String> seenArticleIds = new LinkedHashSet<>();
+        private boolean heartbeatDue;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        synchronized void markSeen(Collection<String> articleIds) {
+            for (String id : articleIds) {
+                rememberSeen(id);
+            }
+        }
+
+        // Queues the articles this client hasn't been sent yet. Articles come newest first and are appended oldest
+        // first, so a full buffer drops the oldest article rather than the newest
+        void offerArticles(List<CryptoNewsIngestionService.NewsArticle> articles) {
+            boolean schedule = false;
+            synchronized (this) {
+                if (closed) return;
+                for (CryptoNewsIngestionService.NewsArticle article : articles.reversed()) {
+                    if (article.id() != null && rememberSeen(article.id())) {
+                        append("article:" + article.id(), new ArticleUpdate(article));
+                        schedule = true;
+                    }
+                }
+                schedule = schedule && startDrain();
+            }
+            if (schedule) sendExecutor.execute(this::drain);
+        }
+
+        void offer(String key, Object update) {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) return;
+                append(key, update);
+                schedule = startDrain();
+            }
+            if (schedule) sendExecutor.execute(this::drain);
+        }
+
+        void heartbeat() {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) return;
+                heartbeatDue = true;
+                schedule = startDrain();
+            }
+            if (schedule) sendExecutor.execute(this::drain);
+        }
+
+        synchronized void close() {
+            closed = true;
+            buffer.clear();
+        }
+
+        // Caller holds the lock
+        private void append(String key, Object update) {
+            buffer.remove(key);
+            buffer.put(key, update);
+            queued.incrementAndGet();
+
+            if (buffer.size() > bufferSize) {
+                Iterator<String> oldest = buffer.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.incrementAndGet();
+            }
+        }
+
+        // Caller holds the lock; true if the caller must submit drain()
+        private boolean startDrain() {
+            if (draining) return false;
+            draining = true;
+            return true;
+        }
+
+        // Caller holds the lock; false if the id was already seen
+        private boolean rememberSeen(String id) {
+            if (!seenArticleIds.add(id)) return false;
+            if (seenArticleIds.size() > MAX_SEEN_ARTICLES) {
+                Iterator<String> oldest = seenArticleIds.iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            return true;
+        }
+
+        // Runs on a virtual thread, at most one per subscriber; the blocking socket write only parks that thread
+        private void drain() {
+            while (true) {
+                List<Object> batch;
+                boolean ping;
+                synchronized (this) {
+                    if (closed || (buffer.isEmpty() && !heartbeatDue)) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(buffer.values());
+                    buffer.clear();
+                    ping = heartbeatDue;
+                    heartbeatDue = false;
+                }
+
+                try {
+                    send(batch, ping);
+                } catch (Exception e) {
+                    // Client went away; the emitter callbacks may not fire for a broken pipe
+                    sendFailures.incrementAndGet();
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        private void send(List<Object> batch, boolean ping) throws Exception {
+            // New articles go out as one event, newest first as in the snapshot (the buffer holds them oldest first)
+            List<CryptoNewsIngestionService.NewsArticle> articles = new ArrayList<>();
+            for (Object update : batch) {
+                if (update instanceof ArticleUpdate articleUpdate) {
+                    articles.addFirst(articleUpdate.article());
+                }
+            }
+            if (!articles.isEmpty()) {
+                emitter.send(SseEmitter.event().name("news").data(Map.of("articles", articles), MediaType.APPLICATION_JSON));
+            }
+
+            for (Object update : batch) {
+                if (update instanceof VoteUpdate voteUpdate) {
+                    emitter.send(SseEmitter.event().name("vote").data(voteUpdate, MediaType.APPLICATION_JSON));
+                }
+            }
+
+            if (ping && batch.isEmpty()) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+        }
+    }
+}
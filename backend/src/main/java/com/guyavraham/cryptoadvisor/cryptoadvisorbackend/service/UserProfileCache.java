@@ -0,0 +1,117 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.User;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read-through cache of immutable profile snapshots; profiles only change at onboarding, which invalidates them
+@Service
+public class UserProfileCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user-profile-cache.max-size:10000}")
+    private int maxSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // LRU by access order, trimmed to maxSize on every insert
+    private final Map<Long, UserProfile> profiles = Collections.synchronizedMap(
+            new LinkedHashMap<Long, UserProfile>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, UserProfile> eldest) {
+                    if (size() > maxSize) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            });
+
+    // Bumped on every invalidation, so a load that raced with one doesn't put the old profile back
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // The profile fields read on hot paths; the sets are immutable copies
+    public record UserProfile(Long id, String name, String investorType,
+                              Set<String> cryptoInterests, Set<String> contentPreferences) {
+
+        public static UserProfile of(User user) {
+            return new UserProfile(user.getId(), user.getName(), user.getInvestorType(),
+                    copy(user.getCryptoInterests()), copy(user.getContentPreferences()));
+        }
+
+        private static Set<String> copy(Set<String> values) {
+            return values == null ? Set.of() : Set.copyOf(values);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "user-profile", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "user-profile", "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", "user-profile").register(meterRegistry);
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "user-profile"), profiles);
+    }
+
+    public Optional<UserProfile> get(Long userId) {
+        UserProfile cached = profiles.get(userId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+
+        long generationAtLoad = generation.get();
+        // Read-only transaction: no flush or dirty checking for the entity we only copy from
+        UserProfile loaded = readOnlyTransaction.execute(status ->
+                userRepository.findById(userId).map(UserProfile::of).orElse(null));
+        if (loaded == null) return Optional.empty();
+
+        // Check and put under the map's lock, which invalidate also holds, so no invalidation slips in between
+        synchronized (profiles) {
+            if (generation.get() == generationAtLoad) {
+                profiles.put(userId, loaded);
+            }
+        }
+        return Optional.of(loaded);
+    }
+
+    public void invalidate(Long userId) {
+        synchronized (profiles) {
+            generation.incrementAndGet();
+            profiles.remove(userId);
+        }
+    }
+}
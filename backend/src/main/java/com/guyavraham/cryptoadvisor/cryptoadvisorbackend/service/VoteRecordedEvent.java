@@ -0,0 +1,15 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import java.util.Objects;
+
+// Published once a vote is committed; previousVote is the user's earlier vote on the same item, or null
+public record VoteRecordedEvent(Long userId, String section, String articleId, String previousVote, String vote) {
+
+    public boolean isArticleVote() {
+        return articleId != null;
+    }
+
+    public boolean changed() {
+        return !Objects.equals(vote, previousVote);
+    }
+}
@@ -0,0 +1,44 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTests {
+
+    @Test
+    void opensOnFailuresAndClosesAfterSuccessfulProbes() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, 1000, 50, 1);
+
+        breaker.record(true, 0);
+        breaker.record(true, 0);
+        breaker.record(false, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(false, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(60);
+        assertTrue(breaker.tryAcquire(), "first call after the open period is a probe");
+        assertFalse(breaker.tryAcquire(), "only one probe at a time");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.record(true, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 100, 10, 60000, 1);
+
+        breaker.record(true, 20_000_000L);
+        breaker.record(true, 20_000_000L);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+}
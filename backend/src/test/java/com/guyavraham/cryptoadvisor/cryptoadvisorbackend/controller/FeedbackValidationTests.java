@@ -0,0 +1,45 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class FeedbackValidationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void malformedVotesAreRejectedBeforeTheyReachTheWriteBatch() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken(4L, "user4@example.com");
+
+        for (String body : new String[] {"{\"section\": \"prices\"}", "{\"section\": \"prices\", \"vote\": \"sideways\"}",
+                "{\"section\": \" \", \"vote\": \"up\"}"}) {
+            mockMvc.perform(post("/api/auth/feedback").header("Authorization", authorization)
+                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(post("/api/auth/article-feedback").header("Authorization", authorization)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"vote\": \"up\"}"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/auth/feedback").header("Authorization", authorization)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"section\": \"prices\", \"vote\": \"up\"}"))
+            .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,71 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtAuthenticationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void perUserEndpointsRequireAToken() throws Exception {
+        mockMvc.perform(get("/api/auth/section-votes/1"))
+            .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/api/auth/section-votes/1").header("Authorization", "Bearer not-a-jwt"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void pathUserIdMustMatchTheToken() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken(1L, "user1@example.com");
+
+        mockMvc.perform(get("/api/auth/section-votes/1").header("Authorization", authorization))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/auth/section-votes/2").header("Authorization", authorization))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void verifiedTokensAreCachedAndTamperedOnesRejected() {
+        String token = jwtUtil.generateToken(7L, "user7@example.com");
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token);
+        assertEquals(7L, first.userId());
+        assertSame(first, jwtUtil.verify(token));
+
+        // A well-formed payload claiming another user, paired with the cached token's signature, must not hit the
+        // cache nor pass the signature check
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"sub\":\"7\"", "\"sub\":\"8\"");
+        assertTrue(payload.contains("\"sub\":\"8\""));
+        String tampered = parts[0] + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + parts[2];
+        assertNull(jwtUtil.verify(tampered));
+    }
+}
@@ -0,0 +1,96 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.JwtUtil;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.Feedback;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.FeedbackRepository;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service.VoteRecordedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResponseCacheTests {
+
+    private static final long USER_ID = 3L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void conditionalGetIsAnsweredFromCacheUntilTheUserVotes() throws Exception {
+        feedbackRepository.save(new Feedback(USER_ID, "prices", "up"));
+        String authorization = "Bearer " + jwtUtil.generateToken(USER_ID, "user3@example.com");
+
+        String etag = mockMvc.perform(get("/api/auth/section-votes/" + USER_ID).header("Authorization", authorization))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "private, no-cache"))
+            .andExpect(jsonPath("$.prices").value("up"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/auth/section-votes/" + USER_ID)
+                .header("Authorization", authorization)
+                .header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", etag))
+            .andExpect(content().bytes(new byte[0]));
+        assertEquals(0, statistics.getPrepareStatementCount(), "statements executed");
+
+        // A committed vote for this user drops the cached body
+        feedbackRepository.save(new Feedback(USER_ID, "meme", "down"));
+        eventPublisher.publishEvent(new VoteRecordedEvent(USER_ID, "meme", null, null, "down"));
+
+        String newEtag = mockMvc.perform(get("/api/auth/section-votes/" + USER_ID)
+                .header("Authorization", authorization)
+                .header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.meme").value("down"))
+            .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void gzipIsOnlyUsedWhenAcceptedWithANonZeroQuality() {
+        assertTrue(ResponseCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseCache.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(ResponseCache.acceptsGzip("*"));
+        assertFalse(ResponseCache.acceptsGzip(null));
+        assertFalse(ResponseCache.acceptsGzip("identity"));
+        assertFalse(ResponseCache.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseCache.acceptsGzip("*, gzip;q=0.0"));
+        assertFalse(ResponseCache.acceptsGzip("*;q=0"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.controller;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.config.JwtUtil;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.Feedback;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.FeedbackRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class VoteQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    private Statistics statistics;
+    private String authorization;
+
+    @BeforeEach
+    void setUp() {
+        feedbackRepository.deleteAll();
+        feedbackRepository.saveAll(List.of(
+            new Feedback(1L, "news", "up", "article-1"),
+            new Feedback(1L, "news", "down", "article-2"),
+            new Feedback(1L, "prices", "up"),
+            new Feedback(1L, "meme", "down"),
+            new Feedback(2L, "news", "up", "article-1"),
+            new Feedback(2L, "prices", "down")
+        ));
+        // Rows were written directly, not through the vote path that invalidates cached responses
+        responseCache.invalidateUser(1L);
+        responseCache.invalidateUser(2L);
+
+        authorization = "Bearer " + jwtUtil.generateToken(1L, "user1@example.com");
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void articleVotesUseOneProjectionQuery() throws Exception {
+        mockMvc.perform(get("/api/auth/article-feedback/1").header("Authorization", authorization))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$['article-1']").value("up"))
+            .andExpect(jsonPath("$['article-2']").value("down"))
+            .andExpect(jsonPath("$.*", hasSize(2)));
+
+        assertSingleProjectionQuery(2);
+    }
+
+    @Test
+    void sectionVotesUseOneProjectionQuery() throws Exception {
+        mockMvc.perform(get("/api/auth/section-votes/1").header("Authorization", authorization))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.prices").value("up"))
+            .andExpect(jsonPath("$.meme").value("down"))
+            .andExpect(jsonPath("$.*", hasSize(2)));
+
+        assertSingleProjectionQuery(2);
+    }
+
+    private void assertSingleProjectionQuery(long expectedRows) {
+        assertEquals(1, statistics.getPrepareStatementCount(), "statements executed");
+        assertEquals(1, statistics.getQueryExecutionCount(), "queries executed");
+        assertEquals(0, statistics.getEntityLoadCount(), "entities loaded");
+
+        String query = statistics.getQueries()[0];
+        assertEquals(expectedRows, statistics.getQueryStatistics(query).getExecutionRowCount(), "rows returned");
+    }
+}
@@ -0,0 +1,20 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CryptoPriceServiceTests {
+
+    @Test
+    void normalizesCoinIdsAndDropsAnythingThatIsNotASlug() {
+        assertEquals(List.of("bitcoin", "shiba-inu", "usd-coin"), List.copyOf(CryptoPriceService.normalizeCoinIds(
+                Arrays.asList(" Bitcoin ", "Shiba Inu", "usd-coin", "bitcoin", null, "", "eth&vs_currencies=eur",
+                        "../coins", "eth%26x", "a".repeat(101)))));
+        assertEquals(Set.of(), CryptoPriceService.normalizeCoinIds(List.of("#", "?ids=x")));
+    }
+}
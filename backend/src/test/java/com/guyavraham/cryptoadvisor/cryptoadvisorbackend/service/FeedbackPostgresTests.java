@@ -0,0 +1,127 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The vote upserts and the previous-vote lookup are PostgreSQL-only SQL, so they run against a real database here
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"feedback.write-behind.durability=COMMIT", "feedback.aggregate.reconcile.chunk-size=2"})
+@Testcontainers(disabledWithoutDocker = true)
+class FeedbackPostgresTests {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private FeedbackWriteBehindService feedbackWriteBehindService;
+
+    @Autowired
+    private ArticleVoteAggregateService articleVoteAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Map<String, Object>> rows(long userId) {
+        return jdbcTemplate.queryForList(
+                "SELECT section, article_id, vote, source FROM feedback WHERE user_id = ? ORDER BY section, article_id",
+                userId);
+    }
+
+    @Test
+    void revotesUpdateTheSameRowAndReportThePreviousVote() throws Exception {
+        feedbackWriteBehindService.submit(11L, "news", "up", "pg-a", "CoinDesk");
+        feedbackWriteBehindService.submit(11L, "news", "down", "pg-a", null);
+        feedbackWriteBehindService.submit(11L, "meme", "up", null, null);
+        feedbackWriteBehindService.submit(11L, "meme", "down", null, null);
+
+        List<Map<String, Object>> rows = rows(11L);
+        assertEquals(2, rows.size());
+        assertEquals("meme", rows.get(0).get("section"));
+        assertEquals("down", rows.get(0).get("vote"));
+        assertEquals("pg-a", rows.get(1).get("article_id"));
+        assertEquals("down", rows.get(1).get("vote"));
+        // A re-vote that doesn't know the source keeps the stored one
+        assertEquals("CoinDesk", rows.get(1).get("source"));
+
+        // The up vote was found and replaced, not counted next to the down vote. Vote events are published right
+        // after the commit is acknowledged, so give the last one a moment
+        Map<String, Long> counts = Map.of();
+        for (int attempt = 0; attempt < 50 && !Map.of("up", 0L, "down", 1L).equals(counts); attempt++) {
+            Thread.sleep(100);
+            counts = articleVoteAggregateService.getCounts(List.of("pg-a")).get("pg-a");
+        }
+        assertEquals(Map.of("up", 0L, "down", 1L), counts);
+    }
+
+    @Test
+    void aFailingRowOnlyDropsItselfFromTheBatch() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        FeedbackWriteBehindService.PendingVote good = new FeedbackWriteBehindService.PendingVote(
+                12L, "news", "up", "pg-b", "Decrypt", now, new CompletableFuture<>());
+        // Longer than the column, so PostgreSQL rejects it and rolls back the whole batch
+        FeedbackWriteBehindService.PendingVote bad = new FeedbackWriteBehindService.PendingVote(
+                12L, "x".repeat(300), "up", null, null, now, new CompletableFuture<>());
+        FeedbackWriteBehindService.PendingVote section = new FeedbackWriteBehindService.PendingVote(
+                12L, "prices", "down", null, null, now, new CompletableFuture<>());
+
+        feedbackWriteBehindService.writeBatch(List.of(good, bad, section));
+
+        good.committed().get(5, TimeUnit.SECONDS);
+        section.committed().get(5, TimeUnit.SECONDS);
+        assertThrows(Exception.class, () -> bad.committed().get(5, TimeUnit.SECONDS));
+
+        List<Map<String, Object>> rows = rows(12L);
+        assertEquals(2, rows.size());
+        assertEquals("pg-b", rows.get(0).get("article_id"));
+        assertEquals("prices", rows.get(1).get("section"));
+    }
+
+    @Test
+    void reconcileRewritesDriftedTotalsChunkByChunk() {
+        for (String articleId : List.of("pg-r1", "pg-r2", "pg-r3")) {
+            jdbcTemplate.update("INSERT INTO feedback (user_id, section, article_id, vote, created_at) "
+                    + "VALUES (13, 'news', ?, 'up', now())", articleId);
+        }
+        jdbcTemplate.update("INSERT INTO feedback (user_id, section, article_id, vote, created_at) "
+                + "VALUES (14, 'news', 'pg-r3', 'down', now())");
+        // Drifted, missing (pg-r2) and orphaned (pg-rz) totals, spread over more than one chunk
+        jdbcTemplate.update("INSERT INTO article_vote_aggregate (article_id, up_votes, down_votes, updated_at) "
+                + "VALUES ('pg-r1', 5, 0, now()), ('pg-r3', 1, 1, now()), ('pg-rz', 2, 2, now())");
+
+        articleVoteAggregateService.reconcile();
+
+        Map<String, List<Long>> totals = new TreeMap<>();
+        jdbcTemplate.query("SELECT article_id, up_votes, down_votes FROM article_vote_aggregate "
+                + "WHERE article_id LIKE 'pg-r%'",
+                row -> totals.put(row.getString(1), List.of(row.getLong(2), row.getLong(3))));
+        assertEquals(Map.of("pg-r1", List.of(1L, 0L), "pg-r2", List.of(1L, 0L), "pg-r3", List.of(1L, 1L),
+                "pg-rz", List.of(0L, 0L)), totals);
+    }
+}
@@ -0,0 +1,69 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NewsRankerTests {
+
+    private static final long NOW = Instant.parse("2026-10-16T12:00:00Z").toEpochMilli();
+    private static final long HALF_LIFE = 6 * 3600_000L;
+
+    private static CryptoNewsIngestionService.NewsArticle article(String id, String time, String source, String... codes) {
+        List<CryptoNewsIngestionService.Currency> currencies = new ArrayList<>();
+        for (String code : codes) {
+            switch (code) {
+                case "BTC" -> currencies.add(new CryptoNewsIngestionService.Currency("BTC", "Bitcoin", "bitcoin"));
+                case "SHIB" -> currencies.add(new CryptoNewsIngestionService.Currency("SHIB", "Shiba Inu", "shiba-inu"));
+                default -> currencies.add(new CryptoNewsIngestionService.Currency(code, null, null));
+            }
+        }
+        return new CryptoNewsIngestionService.NewsArticle(id, "Title " + id, "#", time, source, currencies);
+    }
+
+    private static List<String> ids(List<CryptoNewsIngestionService.NewsArticle> articles) {
+        return articles.stream().map(CryptoNewsIngestionService.NewsArticle::id).toList();
+    }
+
+    @Test
+    void indexesCurrenciesByCodeNameAndSlugAndKeepsOlderArticlesAcrossRefreshes() {
+        NewsRanker.NewsIndex first = NewsRanker.buildIndex(List.of(
+                article("1", "2026-10-16T08:00:00Z", "CoinDesk", "BTC")), NOW, NewsRanker.NewsIndex.EMPTY, 10);
+        NewsRanker.NewsIndex second = NewsRanker.buildIndex(List.of(
+                article("2", "2026-10-16T11:00:00Z", "Decrypt", "SHIB", "BTC"),
+                article("1", "2026-10-16T08:00:00Z", "CoinDesk", "BTC")), NOW, first, 10);
+
+        assertEquals(List.of("2", "1"), second.entries().stream().map(entry -> entry.article().id()).toList());
+        assertArrayEquals(new int[] {0, 1}, second.byCurrency().get("bitcoin"));
+        assertArrayEquals(new int[] {0}, second.byCurrency().get("shiba inu"));
+        assertArrayEquals(new int[] {0}, second.byCurrency().get("shib"));
+
+        NewsRanker.NewsIndex trimmed = NewsRanker.buildIndex(List.of(
+                article("3", "2026-10-16T11:30:00Z", "CoinDesk")), NOW, second, 2);
+        assertEquals(List.of("3", "2"), trimmed.entries().stream().map(entry -> entry.article().id()).toList());
+    }
+
+    @Test
+    void ranksByInterestThenRecencyAndSourceVotes() {
+        NewsRanker.NewsIndex index = NewsRanker.buildIndex(List.of(
+                article("new", "2026-10-16T11:55:00Z", "Decrypt"),
+                article("liked", "2026-10-16T11:50:00Z", "CoinDesk"),
+                article("shib", "2026-10-16T02:00:00Z", "Decrypt", "SHIB"),
+                article("undated", "Unknown", "Decrypt")), NOW - 3600_000L, NewsRanker.NewsIndex.EMPTY, 10);
+
+        // No interests or votes: newest first, the undated one counts as published at fetch time
+        assertEquals(List.of("new", "liked", "undated", "shib"),
+                ids(NewsRanker.rank(index, Set.of(), Map.of(), NOW, HALF_LIFE, 6)));
+
+        // An interest beats hours of age; a liked source beats a few minutes
+        assertEquals(List.of("shib", "liked", "new"),
+                ids(NewsRanker.rank(index, Set.of("Shiba Inu"), Map.of("CoinDesk", 1), NOW, HALF_LIFE, 3)));
+    }
+}
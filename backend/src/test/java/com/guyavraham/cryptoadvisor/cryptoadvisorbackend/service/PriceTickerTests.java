@@ -0,0 +1,79 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class PriceTickerTests {
+
+    private static PriceTicker ticker() {
+        PriceTicker ticker = new PriceTicker();
+        ReflectionTestUtils.setField(ticker, "maxSubscribesPerMinute", 2);
+        return ticker;
+    }
+
+    @Test
+    void aBlockedSessionOnlyKeepsTheLatestMessagePerCoin() throws Exception {
+        PriceTicker ticker = ticker();
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        // The first send blocks until released, like a client that stopped reading
+        WebSocketSession session = mock(WebSocketSession.class);
+        doAnswer(invocation -> {
+            if (blocking.getCount() > 0) {
+                blocking.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            sent.add(((WebSocketMessage<?>) invocation.getArgument(0)).getPayload().toString());
+            return null;
+        }).when(session).sendMessage(any());
+
+        PriceTicker.TickerSession tickerSession = ticker.new TickerSession(session);
+        tickerSession.coins = Set.of("bitcoin", "ethereum");
+
+        tickerSession.offer(Map.of("bitcoin", new TextMessage("btc-1")));
+        assertTrue(blocking.await(5, TimeUnit.SECONDS));
+        tickerSession.offer(Map.of("bitcoin", new TextMessage("btc-2")));
+        tickerSession.offer(Map.of("ethereum", new TextMessage("eth-1"), "dogecoin", new TextMessage("doge-1")));
+        tickerSession.offer(Map.of("bitcoin", new TextMessage("btc-3")));
+        release.countDown();
+
+        assertEquals("btc-1", sent.poll(5, TimeUnit.SECONDS));
+        assertEquals("btc-3", sent.poll(5, TimeUnit.SECONDS));
+        assertEquals("eth-1", sent.poll(5, TimeUnit.SECONDS));
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS), "unsubscribed coins and replaced quotes are never sent");
+        ticker.shutdown();
+    }
+
+    @Test
+    void subscribesAreLimitedPerMinute() {
+        PriceTicker ticker = ticker();
+        PriceTicker.TickerSession tickerSession = ticker.new TickerSession(mock(WebSocketSession.class));
+
+        long start = 1_000_000;
+        assertTrue(tickerSession.allowSubscribe(start));
+        assertTrue(tickerSession.allowSubscribe(start + 1_000));
+        assertFalse(tickerSession.allowSubscribe(start + 2_000));
+        assertTrue(tickerSession.allowSubscribe(start + 61_000), "a new window starts after a minute");
+        ticker.shutdown();
+    }
+}
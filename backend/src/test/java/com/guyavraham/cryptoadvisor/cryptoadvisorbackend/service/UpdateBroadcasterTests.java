@@ -0,0 +1,121 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class UpdateBroadcasterTests {
+
+    // Records every event's data; the first send blocks until released, like a client that stopped reading
+    private static class BlockedEmitter extends SseEmitter {
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BlockingQueue<List<Object>> sent = new LinkedBlockingQueue<>();
+        private boolean blocked;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (!blocked) {
+                blocked = true;
+                blocking.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<Object> data = new ArrayList<>();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                // Field names and framing come as strings, the payload as the object itself
+                if (!(part.getData() instanceof String)) data.add(part.getData());
+            }
+            sent.add(data);
+        }
+
+        Object next() throws InterruptedException {
+            List<Object> data = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(data, "no event sent");
+            return data.isEmpty() ? null : data.getFirst();
+        }
+    }
+
+    private static CryptoNewsIngestionService.NewsArticle article(String id) {
+        return new CryptoNewsIngestionService.NewsArticle(id, "Title " + id, "#", "Unknown", "CoinDesk", List.of());
+    }
+
+    private static UpdateBroadcaster broadcaster(int bufferSize) {
+        UpdateBroadcaster broadcaster = new UpdateBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", bufferSize);
+        return broadcaster;
+    }
+
+    @Test
+    void fullBufferDropsTheOldestArticlesWhileTheSenderIsBlocked() throws Exception {
+        UpdateBroadcaster broadcaster = broadcaster(3);
+        BlockedEmitter emitter = new BlockedEmitter();
+        UpdateBroadcaster.Subscriber subscriber = broadcaster.new Subscriber(1L, emitter);
+
+        // The keep-alive goes out first and blocks the sender
+        subscriber.heartbeat();
+        emitter.blocking.await(5, TimeUnit.SECONDS);
+        // Newest first, as in a snapshot
+        subscriber.offerArticles(List.of(article("5"), article("4"), article("3"), article("2"), article("1")));
+        emitter.release.countDown();
+
+        assertNull(emitter.next(), "keep-alive comment");
+        Map<?, ?> news = (Map<?, ?>) emitter.next();
+        List<?> articles = (List<?>) news.get("articles");
+        assertEquals(List.of("5", "4", "3"), articles.stream()
+                .map(article -> ((CryptoNewsIngestionService.NewsArticle) article).id()).toList());
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void votesOnTheSameItemCollapseToTheLatestWhileTheSenderIsBlocked() throws Exception {
+        UpdateBroadcaster broadcaster = broadcaster(32);
+        BlockedEmitter emitter = new BlockedEmitter();
+        UpdateBroadcaster.Subscriber subscriber = broadcaster.new Subscriber(1L, emitter);
+
+        subscriber.heartbeat();
+        emitter.blocking.await(5, TimeUnit.SECONDS);
+        subscriber.offer("vote:news:a", new UpdateBroadcaster.VoteUpdate("news", "a", "up"));
+        subscriber.offer("vote:news:b", new UpdateBroadcaster.VoteUpdate("news", "b", "up"));
+        subscriber.offer("vote:news:a", new UpdateBroadcaster.VoteUpdate("news", "a", "down"));
+        emitter.release.countDown();
+
+        assertNull(emitter.next(), "keep-alive comment");
+        assertEquals(new UpdateBroadcaster.VoteUpdate("news", "b", "up"), emitter.next());
+        assertEquals(new UpdateBroadcaster.VoteUpdate("news", "a", "down"), emitter.next());
+        assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS), "nothing else pending");
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void aFailedSubscribeGivesItsSlotBack() {
+        UpdateBroadcaster broadcaster = broadcaster(32);
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 1);
+        ReflectionTestUtils.setField(broadcaster, "cryptoNewsIngestionService", mock(CryptoNewsIngestionService.class));
+
+        // Set.copyOf rejects the null id after the slot was taken
+        assertThrows(NullPointerException.class, () -> broadcaster.subscribe(1L, Arrays.asList("a", null)));
+        assertEquals(0, ((AtomicInteger) ReflectionTestUtils.getField(broadcaster, "subscriberCount")).get());
+        broadcaster.shutdown();
+    }
+}
@@ -0,0 +1,73 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UpstreamDecodingTests {
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decodesArticlesUpToTheLimitWithDefaults() throws Exception {
+        List<CryptoNewsIngestionService.NewsArticle> articles = CryptoNewsIngestionService.decodeArticles(json(
+                "{'next': null, 'results': ["
+                        + "{'id': 1, 'kind': 'news', 'title': 'First', 'url': 'https://a', 'published_at': '2026-10-16T10:00:00Z',"
+                        + " 'source': {'region': 'en', 'title': 'CoinDesk', 'domain': 'coindesk.com'},"
+                        + " 'instruments': [{'code': 'BTC', 'title': 'Bitcoin', 'slug': 'bitcoin', 'market_cap_usd': 1.2e12}, {'title': 'no code'}]},"
+                        + "{'description': 'no title, skipped'},"
+                        + "{'id': 2, 'title': 'Second'},"
+                        + "{'id': 3, 'title': 'Not read'}"
+                        + "]}"), 2);
+
+        assertEquals(List.of(
+                new CryptoNewsIngestionService.NewsArticle("1", "First", "https://a", "2026-10-16T10:00:00Z", "CoinDesk",
+                        List.of(new CryptoNewsIngestionService.Currency("BTC", "Bitcoin", "bitcoin"))),
+                new CryptoNewsIngestionService.NewsArticle("2", "Second", "#", "Unknown", "Unknown", List.of())), articles);
+    }
+
+    @Test
+    void missingResultsArrayDecodesToNull() throws Exception {
+        assertNull(CryptoNewsIngestionService.decodeArticles(json("{'detail': 'Token is invalid'}"), 20));
+    }
+
+    @Test
+    void decodesRedditPostsSkippingUnusedFields() throws Exception {
+        List<MemePoolService.RedditPost> posts = MemePoolService.decodePosts(json(
+                "{'kind': 'Listing', 'data': {'after': 't3_b', 'children': ["
+                        + "{'kind': 't3', 'data': {'title': 'HODL', 'preview': {'images': [{'source': {'url': 'x'}}]},"
+                        + " 'url': 'https://i.redd.it/a.jpg', 'permalink': '/r/x/a', 'score': 42, 'is_video': false,"
+                        + " 'post_hint': 'image', 'author': 'someone', 'subreddit': 'CryptoMemes'}},"
+                        + "{'kind': 't3', 'data': {'title': 'Clip', 'is_video': true, 'author': null}}"
+                        + "], 'before': null}}"), "fallback");
+
+        assertEquals(List.of(
+                new MemePoolService.RedditPost("HODL", "https://i.redd.it/a.jpg", "/r/x/a", 42, "CryptoMemes",
+                        "someone", false, "image"),
+                new MemePoolService.RedditPost("Clip", "", "", 0, "fallback", "unknown", true, "")), posts);
+        assertFalse(MemePoolService.isValidMemePost(posts.get(1)));
+    }
+
+    @Test
+    void decodesTokenAndCompletionContent() throws Exception {
+        RedditTokenProvider.TokenResponse token = RedditTokenProvider.decodeTokenResponse(json(
+                "{'access_token': 'abc', 'token_type': 'bearer', 'expires_in': 86400, 'scope': '*'}"));
+        assertEquals(new RedditTokenProvider.TokenResponse("abc", 86400), token);
+
+        assertEquals("Buy the dip", AIInsightService.decodeCompletionContent(json(
+                "{'id': 'gen-1', 'choices': [{'index': 0, 'message': {'role': 'assistant', 'content': 'Buy the dip'}}],"
+                        + " 'usage': {'total_tokens': 12}}")));
+        assertEquals(" token", AIInsightService.decodeChunkContent(
+                "{\"choices\": [{\"delta\": {\"role\": \"assistant\", \"content\": \" token\"}}]}"));
+        assertNull(AIInsightService.decodeChunkContent("{\"choices\": [{\"delta\": {}, \"finish_reason\": \"stop\"}]}"));
+    }
+}
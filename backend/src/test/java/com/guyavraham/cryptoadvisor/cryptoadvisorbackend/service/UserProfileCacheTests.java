@@ -0,0 +1,56 @@
+package com.guyavraham.cryptoadvisor.cryptoadvisorbackend.service;
+
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.model.User;
+import com.guyavraham.cryptoadvisor.cryptoadvisorbackend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class UserProfileCacheTests {
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void repeatReadsSkipTheDatabaseUntilInvalidated() {
+        User user = new User("profile@example.com", "Profile", "hash");
+        user.setInvestorType("HODLer");
+        user.setCryptoInterests(Set.of("bitcoin"));
+        user.setContentPreferences(Set.of("Market News"));
+        Long userId = userRepository.save(user).getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        UserProfileCache.UserProfile first = userProfileCache.get(userId).orElseThrow();
+        assertEquals(Set.of("bitcoin"), first.cryptoInterests());
+
+        statistics.clear();
+        userProfileCache.get(userId).orElseThrow();
+        assertEquals(0, statistics.getPrepareStatementCount(), "statements on a cache hit");
+
+        user.setCryptoInterests(Set.of("ethereum"));
+        userRepository.save(user);
+        userProfileCache.invalidate(userId);
+
+        statistics.clear();
+        assertEquals(Set.of("ethereum"), userProfileCache.get(userId).orElseThrow().cryptoInterests());
+        assertTrue(statistics.getPrepareStatementCount() > 0, "statements after invalidation");
+    }
+}
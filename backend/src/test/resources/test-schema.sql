@@ -0,0 +1,2 @@
+-- Stand-in for FeedbackSchemaInitializer on H2, which has no partial indexes; runs after ddl-auto created the tables
+ALTER TABLE feedback ADD CONSTRAINT uk_feedback_user_section_article UNIQUE (user_id, section, article_id);
@@ -24,6 +24,14 @@ function Dashboard({ user, onLogout }) {
 
   const [sectionVotes, setSectionVotes] = useState({});
   const [votingLoading, setVotingLoading] = useState({});
+  const [newsData, setNewsData] = useState(null);
+
+  const fallbackPrices = [
+    { name: 'Bitcoin', price: '$43,250', change: '2.5' },
+    { name: 'Ethereum', price: '$2,680', change: '1.8' },
+    { name: 'Cardano', price: '$0.52', change: '-0.9' },
+    { name: 'Solana', price: '$95.40', change: '4.2' }
+  ];
 
   // Helper function to get authorization headers
   const getAuthHeaders = () => {
@@ -43,12 +51,101 @@ function Dashboard({ user, onLogout }) {
 
   useEffect(() => {
     fetchDashboardData();
-    fetchSectionVotes();
   }, []);
 
+  // Live prices: the server only sends coins whose price changed, so each message replaces one row
+  useEffect(() => {
+    const coins = user.cryptoInterests && user.cryptoInterests.length > 0
+      ? user.cryptoInterests.map(coin => coin.toLowerCase())
+      : ['bitcoin', 'ethereum', 'cardano', 'solana'];
+    let socket = null;
+    let retryTimer = null;
+    let retryDelay = 1000;
+    let stopped = false;
+
+    const connect = () => {
+      // Browsers can't send an Authorization header on a WebSocket, so the token goes in the query
+      const token = encodeURIComponent(localStorage.getItem('token') || '');
+      socket = new WebSocket(`wss://backend-production-3f95.up.railway.app/ws/prices?token=${token}`);
+
+      socket.onopen = () => {
+        retryDelay = 1000;
+        socket.send(JSON.stringify({ type: 'subscribe', coins }));
+      };
+
+      socket.onmessage = (event) => {
+        const update = JSON.parse(event.data);
+        const row = formatPrice(update.coin, update);
+        setDashboardData(prev => {
+          const known = prev.prices.some(coin => coin.name === row.name);
+          return {
+            ...prev,
+            prices: known
+              ? prev.prices.map(coin => coin.name === row.name ? row : coin)
+              : [...prev.prices, row]
+          };
+        });
+      };
+
+      // Reconnect with backoff; the REST prices stay on screen meanwhile
+      socket.onclose = () => {
+        if (stopped) return;
+        retryTimer = setTimeout(connect, retryDelay);
+        retryDelay = Math.min(retryDelay * 2, 30000);
+      };
+    };
+
+    connect();
+    return () => {
+      stopped = true;
+      clearTimeout(retryTimer);
+      if (socket) socket.close();
+    };
+  }, []);
+
+  // Loads everything in one round trip; falls back to the individual endpoints if that fails
   const fetchDashboardData = async () => {
     setDashboardData(prev => ({ ...prev, loading: true }));
-    
+
+    try {
+      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/dashboard/${user.userId}`, {
+        headers: getAuthHeaders()
+      });
+
+      if (response.status === 401) {
+        handleUnauthorized();
+        return;
+      }
+
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
+      }
+
+      const data = await response.json();
+      if (data.degraded && data.degraded.length > 0) {
+        console.log('Dashboard parts served degraded:', data.degraded);
+      }
+
+      const prices = formatPrices(data.prices || {});
+      setSectionVotes(data.sectionVotes || {});
+      setNewsData({ news: data.news || [], votes: data.articleVotes || {} });
+      setDashboardData({
+        prices: prices.length > 0 ? prices : fallbackPrices,
+        aiInsight: data.insight || 'AI insight unavailable',
+        meme: data.meme || null,
+        loading: false,
+        aiLoading: false
+      });
+    } catch (error) {
+      console.error('Error fetching dashboard bootstrap:', error);
+      await fetchDashboardDataSeparately();
+    }
+  };
+
+  const fetchDashboardDataSeparately = async () => {
+    setNewsData(null);
+    fetchSectionVotes();
+
     try {
       const [pricesData, aiData, memeData] = await Promise.allSettled([
         fetchCryptoPrices(),
@@ -95,28 +192,33 @@ function Dashboard({ user, onLogout }) {
         ? user.cryptoInterests.join(',').toLowerCase()
         : 'bitcoin,ethereum,cardano,solana';
       
-      const response = await fetch(`https://api.coingecko.com/api/v3/simple/price?ids=${coins}&vs_currencies=usd&include_24hr_change=true`);
+      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/prices?ids=${encodeURIComponent(coins)}`, {
+        headers: getAuthHeaders()
+      });
       const data = await response.json();
       
-      return Object.entries(data).map(([coin, info]) => ({
-        name: coin.charAt(0).toUpperCase() + coin.slice(1),
-        price: `$${info.usd.toLocaleString()}`,
-        change: info.usd_24h_change.toFixed(2)
-      }));
+      return formatPrices(data);
     } catch (error) {
-      return [
-        { name: 'Bitcoin', price: '$43,250', change: '2.5' },
-        { name: 'Ethereum', price: '$2,680', change: '1.8' },
-        { name: 'Cardano', price: '$0.52', change: '-0.9' },
-        { name: 'Solana', price: '$95.40', change: '4.2' }
-      ];
+      return fallbackPrices;
     }
   };
 
-  const fetchAIInsight = async () => {
+  // Converts the CoinGecko-shaped price map into the list the prices card renders
+  const formatPrices = (data) => {
+    return Object.entries(data).map(([coin, info]) => formatPrice(coin, info));
+  };
+
+  const formatPrice = (coin, info) => ({
+    name: coin.charAt(0).toUpperCase() + coin.slice(1),
+    price: `$${info.usd.toLocaleString()}`,
+    change: info.usd_24h_change.toFixed(2)
+  });
+
+  const fetchAIInsight = async (regenerate = false) => {
     try {
       console.log('Fetching AI insight from backend...');
-      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/ai-insight/${user.userId}`, {
+      const query = regenerate ? '?regenerate=true' : '';
+      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/ai-insight/${user.userId}${query}`, {
         headers: getAuthHeaders()
       });
       
@@ -160,10 +262,58 @@ function Dashboard({ user, onLogout }) {
     }
   };
 
+  // Reads the SSE stream from the backend and reports the text generated so far
+  const streamAIInsight = async (regenerate, onText) => {
+    const query = regenerate ? '?regenerate=true' : '';
+    const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/ai-insight/${user.userId}/stream${query}`, {
+      headers: { ...getAuthHeaders(), 'Accept': 'text/event-stream' }
+    });
+
+    if (response.status === 401) {
+      handleUnauthorized();
+      return 'Authentication required';
+    }
+
+    if (!response.ok || !response.body) {
+      throw new Error(`HTTP error! status: ${response.status}`);
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    let text = '';
+
+    while (true) {
+      const { value, done } = await reader.read();
+      if (done) break;
+
+      buffer += decoder.decode(value, { stream: true });
+      const events = buffer.split('\n\n');
+      buffer = events.pop();
+
+      for (const rawEvent of events) {
+        let eventName = 'message';
+        let data = '';
+        rawEvent.split('\n').forEach(line => {
+          if (line.startsWith('event:')) eventName = line.slice(6).trim();
+          else if (line.startsWith('data:')) data += line.slice(5);
+        });
+        if (!data) continue;
+
+        const payload = JSON.parse(data);
+        // "token" events append, "done"/"fallback" carry the final text
+        text = eventName === 'token' ? text + payload.text : payload.text;
+        onText(text);
+      }
+    }
+
+    return text || 'AI insight unavailable';
+  };
+
   const fetchCryptoMeme = async () => {
     try {
       console.log('Fetching crypto meme from backend (Reddit)...');
-      const response = await fetch('https://backend-production-3f95.up.railway.app/api/auth/crypto-meme', {
+      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/crypto-meme`, {
         headers: getAuthHeaders()
       });
       
@@ -253,7 +403,15 @@ function Dashboard({ user, onLogout }) {
     setDashboardData(prev => ({ ...prev, aiLoading: true }));
     
     try {
-      const newInsight = await fetchAIInsight();
+      let newInsight;
+      try {
+        newInsight = await streamAIInsight(true, text => {
+          setDashboardData(prev => ({ ...prev, aiInsight: text, aiLoading: false }));
+        });
+      } catch (streamError) {
+        console.error('Error streaming AI insight:', streamError);
+        newInsight = await fetchAIInsight(true);
+      }
       setDashboardData(prev => ({ 
         ...prev, 
         aiInsight: newInsight, 
@@ -294,7 +452,11 @@ function Dashboard({ user, onLogout }) {
       </header>
 
       <div className="dashboard-grid">
-        <NewsSection user={user} />
+        <NewsSection
+          user={user}
+          initialNews={newsData?.news}
+          initialVotes={newsData?.votes}
+        />
 
         <div className="dashboard-card">
           <h2>💰 Coin Prices</h2>
@@ -1,20 +1,128 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import './NewsSection.css';
 
-function NewsSection({ user }) {
+function NewsSection({ user, initialNews, initialVotes }) {
   const [news, setNews] = useState([]);
   const [loading, setLoading] = useState(true);
   const [userVotes, setUserVotes] = useState({}); // Store user's votes for each article
   const [votingLoading, setVotingLoading] = useState({});
+  const [voteCounts, setVoteCounts] = useState({}); // Up/down totals across all users
+  const newsRef = useRef([]); // Latest list, read when (re)connecting the update stream
 
   useEffect(() => {
-    fetchNews();
-    fetchUserVotes();
+    // The dashboard may already have loaded these in its bootstrap call
+    if (initialNews) {
+      setNews(initialNews);
+      setLoading(false);
+    } else {
+      fetchNews();
+    }
+
+    if (initialVotes) {
+      setUserVotes(initialVotes);
+    } else {
+      fetchUserVotes();
+    }
+  }, []);
+
+  useEffect(() => {
+    newsRef.current = news;
+    if (news.length > 0) {
+      fetchVoteCounts(news.map(article => article.id));
+    }
+  }, [news]);
+
+  // New articles and this user's votes are pushed over one SSE stream instead of polling; reconnects with backoff
+  useEffect(() => {
+    const controller = new AbortController();
+
+    const connect = async () => {
+      let retryDelay = 1000;
+      while (!controller.signal.aborted) {
+        try {
+          const seen = newsRef.current.map(article => article.id).join(',');
+          const query = seen ? `?seen=${encodeURIComponent(seen)}` : '';
+          const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/updates${query}`, {
+            headers: { 'Authorization': `Bearer ${localStorage.getItem('token')}`, 'Accept': 'text/event-stream' },
+            signal: controller.signal
+          });
+
+          if (response.status === 401) return;
+          if (!response.ok || !response.body) {
+            throw new Error(`HTTP error! status: ${response.status}`);
+          }
+
+          retryDelay = 1000;
+          await readUpdates(response.body);
+        } catch (error) {
+          if (controller.signal.aborted) return;
+          console.error('Update stream error:', error);
+        }
+
+        await new Promise(resolve => setTimeout(resolve, retryDelay));
+        retryDelay = Math.min(retryDelay * 2, 30000);
+      }
+    };
+
+    connect();
+    return () => controller.abort();
   }, []);
 
+  const readUpdates = async (body) => {
+    const reader = body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    while (true) {
+      const { value, done } = await reader.read();
+      if (done) return;
+
+      buffer += decoder.decode(value, { stream: true });
+      const events = buffer.split('\n\n');
+      buffer = events.pop();
+
+      for (const rawEvent of events) {
+        let eventName = 'message';
+        let data = '';
+        rawEvent.split('\n').forEach(line => {
+          if (line.startsWith('event:')) eventName = line.slice(6).trim();
+          else if (line.startsWith('data:')) data += line.slice(5);
+        });
+        // Comment-only events are keep-alives
+        if (!data) continue;
+
+        const payload = JSON.parse(data);
+        if (eventName === 'news') {
+          setNews(prev => {
+            const known = new Set(prev.map(article => article.id));
+            const fresh = payload.articles.filter(article => !known.has(article.id));
+            return fresh.length > 0 ? [...fresh, ...prev].slice(0, 6) : prev;
+          });
+        } else if (eventName === 'vote' && payload.section === 'news' && payload.articleId) {
+          setUserVotes(prev => ({ ...prev, [payload.articleId]: payload.vote }));
+        }
+      }
+    }
+  };
+
+  const fetchVoteCounts = async (articleIds) => {
+    try {
+      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/article-votes?ids=${articleIds.join(',')}`);
+      if (response.ok) {
+        const counts = await response.json();
+        setVoteCounts(counts);
+      }
+    } catch (error) {
+      console.error('Error fetching vote counts:', error);
+    }
+  };
+
   const fetchNews = async () => {
     try {
-      const response = await fetch('https://backend-production-3f95.up.railway.app/api/auth/crypto-news');
+      // Ranked for this user (interests, recency, past votes by source)
+      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/crypto-news/${user.userId}`, {
+        headers: { 'Authorization': `Bearer ${localStorage.getItem('token')}` }
+      });
       if (response.ok) {
         const data = await response.json();
         setNews(data);
@@ -28,7 +136,9 @@ function NewsSection({ user }) {
 
   const fetchUserVotes = async () => {
     try {
-      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/article-feedback/${user.userId}`);
+      const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/article-feedback/${user.userId}`, {
+        headers: { 'Authorization': `Bearer ${localStorage.getItem('token')}` }
+      });
       if (response.ok) {
         const votes = await response.json();
         setUserVotes(votes);
@@ -46,6 +156,7 @@ function NewsSection({ user }) {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
+          'Authorization': `Bearer ${localStorage.getItem('token')}`
         },
         body: JSON.stringify({
           userId: user.userId,
@@ -55,11 +166,25 @@ function NewsSection({ user }) {
       });
 
       if (response.ok) {
+        const previousVote = userVotes[articleId];
+
         // Update local state
         setUserVotes(prev => ({
           ...prev,
           [articleId]: voteType
         }));
+
+        // Totals are flushed in the background, so adjust them locally (a changed vote moves one count)
+        if (previousVote !== voteType) {
+          setVoteCounts(prev => {
+            const counts = { up: 0, down: 0, ...prev[articleId] };
+            if (previousVote) {
+              counts[previousVote] = Math.max(0, counts[previousVote] - 1);
+            }
+            counts[voteType] = counts[voteType] + 1;
+            return { ...prev, [articleId]: counts };
+          });
+        }
       } else {
         console.error('Failed to submit vote');
       }
@@ -137,7 +262,7 @@ function NewsSection({ user }) {
                 disabled={votingLoading[article.id]}
                 title="Like this article"
               >
-                👍
+                👍 {voteCounts[article.id]?.up ?? ''}
               </button>
               
               <button
@@ -146,7 +271,7 @@ function NewsSection({ user }) {
                 disabled={votingLoading[article.id]}
                 title="Dislike this article"
               >
-                👎
+                👎 {voteCounts[article.id]?.down ?? ''}
               </button>
             </div>
           </div>
@@ -29,7 +29,10 @@ function Onboarding({ user, onComplete }) {
     try {
         const response = await fetch(`https://backend-production-3f95.up.railway.app/api/auth/onboarding/${user.userId}`, {
             method: 'PUT',
-            headers: { 'Content-Type': 'application/json' },
+            headers: {
+              'Content-Type': 'application/json',
+              'Authorization': `Bearer ${localStorage.getItem('token')}`
+            },
             body: JSON.stringify(formData),
       });
 